@@ -0,0 +1,82 @@
+package com.lifesteal.gametest;
+
+import com.lifesteal.Main;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.ai.attributes.Attributes;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraft.world.level.GameType;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+
+/**
+ * Checks that the RockSolid armor floor holds against Cleave's shred.
+ */
+@GameTestHolder(Main.MODID)
+@PrefixGameTestTemplate(false)
+public class ArmorFloorTests {
+
+    // Mock players can't be hurt for their first 60 ticks.
+    private static final int SPAWN_PROTECTION_TICKS = 61;
+    private static final int BASE_ARMOR = 4;
+
+    /**
+     * A shredded player takes off a piece of armor. Once the swap is done, the floor must top up
+     * what the shred now takes below it: three RockSolid pieces without armor of their own give a
+     * floor of 3, while the shredded base armor alone is below that.
+     */
+    @GameTest(template = "combat_arena", timeoutTicks = 100)
+    public static void floorHoldsWhenArmorChangesUnderShred(GameTestHelper helper) {
+        MinecraftServer server = helper.getLevel().getServer();
+        boolean pvp = server.isPvpAllowed();
+        server.setPvpAllowed(true);
+
+        Enchantment rockSolid = Main.ROCK_SOLID_ENCHANTMENT.get();
+        ServerPlayer victim = spawnPlayer(helper);
+        ServerPlayer attacker = spawnPlayer(helper);
+        victim.getAttribute(Attributes.ARMOR).setBaseValue(BASE_ARMOR);
+        victim.setItemSlot(EquipmentSlot.HEAD, enchanted(Items.CARVED_PUMPKIN, rockSolid));
+        victim.setItemSlot(EquipmentSlot.LEGS, enchanted(Items.STICK, rockSolid));
+        victim.setItemSlot(EquipmentSlot.FEET, enchanted(Items.STICK, rockSolid));
+        victim.setItemSlot(EquipmentSlot.CHEST, new ItemStack(Items.DIAMOND_CHESTPLATE));
+        attacker.setItemSlot(EquipmentSlot.MAINHAND, enchanted(Items.IRON_SWORD, Main.CLEAVE_ENCHANTMENT.get()));
+
+        helper.runAfterDelay(SPAWN_PROTECTION_TICKS, () -> {
+            DamageSource source = helper.getLevel().damageSources().playerAttack(attacker);
+            for (int i = 0; i < 6; i++) {
+                victim.invulnerableTime = 0;
+                victim.hurt(source, 1.0f);
+                victim.setHealth(victim.getMaxHealth());
+            }
+            victim.setItemSlot(EquipmentSlot.CHEST, ItemStack.EMPTY);
+        });
+        // The floor is recomputed at the end of the tick the armor changed in.
+        helper.runAfterDelay(SPAWN_PROTECTION_TICKS + 2, () -> {
+            double armor = victim.getAttributeValue(Attributes.ARMOR);
+            server.getPlayerList().remove(victim);
+            server.getPlayerList().remove(attacker);
+            server.setPvpAllowed(pvp);
+            helper.assertTrue(armor >= 3, "Armor " + armor + " is below the RockSolid floor of 3");
+            helper.succeed();
+        });
+    }
+
+    private static ServerPlayer spawnPlayer(GameTestHelper helper) {
+        ServerPlayer player = helper.makeMockServerPlayerInLevel();
+        player.setGameMode(GameType.SURVIVAL);
+        return player;
+    }
+
+    private static ItemStack enchanted(Item item, Enchantment enchantment) {
+        ItemStack stack = new ItemStack(item);
+        stack.enchant(enchantment, enchantment.getMaxLevel());
+        return stack;
+    }
+}
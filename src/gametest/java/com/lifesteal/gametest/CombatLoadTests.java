@@ -0,0 +1,251 @@
+package com.lifesteal.gametest;
+
+import com.lifesteal.Main;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraft.world.level.GameRules;
+import net.minecraft.world.level.GameType;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Headless combat load scenarios, run with the {@code gameTestServer} run config.
+ *
+ * Each scenario builds its load, lets it settle for {@link #WARMUP_TICKS} (mock players are
+ * spawn-protected for the first 60 ticks), then samples the server tick time for
+ * {@link #MEASURE_TICKS} while the load keeps running. Results go to the JSON report written by
+ * {@link TickRecorder}. Scenarios are in separate batches so they never tick at the same time.
+ *
+ * Hits are dealt through {@link LivingEntity#hurt} with a player attack source, which runs the
+ * full combat pipeline without depending on attack cooldowns or reach.
+ */
+@GameTestHolder(Main.MODID)
+@PrefixGameTestTemplate(false)
+public class CombatLoadTests {
+
+    private static final String ARENA = "combat_arena";
+    private static final int ARENA_SIZE = 48;
+
+    private static final int WARMUP_TICKS = 80;
+    private static final int MEASURE_TICKS = 400;
+    private static final int TIMEOUT_TICKS = WARMUP_TICKS + MEASURE_TICKS + 20;
+
+    private static final int ARENA_MOBS = 500;
+    private static final int ARENA_PLAYERS = 20;
+    private static final int SWEEP_TARGETS = 10;
+
+    private static final int WAVE_PLAYERS = 20;
+    private static final int WAVE_MOBS = 100;
+    private static final int WAVE_INTERVAL_TICKS = 40;
+    private static final int WAVE_KILL_DELAY_TICKS = 2;
+
+    private static final int ROCK_SOLID_PLAYERS = 100;
+    private static final int ARMOR_SWAP_INTERVAL_TICKS = 20;
+
+    /**
+     * Players with Cleave and Lifesteal swords sweep an arena of mobs. Every tick each player hits
+     * the next few mobs in turn, so every mob carries Cleave stacks and every hit heals.
+     */
+    @GameTest(template = ARENA, batch = "lifesteal_load_arena", timeoutTicks = TIMEOUT_TICKS)
+    public static void cleaveLifestealArena(GameTestHelper helper) {
+        List<Mob> mobs = spawnMobs(helper, ARENA_MOBS);
+        List<ServerPlayer> players = spawnPlayers(helper, ARENA_PLAYERS);
+        ItemStack sword = enchanted(Items.NETHERITE_SWORD,
+                Main.CLEAVE_ENCHANTMENT.get(), Main.LIFESTEAL_ENCHANTMENT.get());
+        for (ServerPlayer player : players) {
+            player.setItemSlot(EquipmentSlot.MAINHAND, sword.copy());
+        }
+
+        int[] next = {0};
+        run(helper, "cleave_lifesteal_arena", tick -> {
+            for (ServerPlayer player : players) {
+                // Leave room for Lifesteal to heal.
+                player.setHealth(player.getMaxHealth() / 2);
+                DamageSource source = helper.getLevel().damageSources().playerAttack(player);
+                for (int i = 0; i < SWEEP_TARGETS; i++) {
+                    Mob mob = mobs.get(next[0]++ % mobs.size());
+                    hit(mob, source, 6.0f);
+                    mob.setHealth(mob.getMaxHealth());
+                }
+            }
+        }, () -> cleanUp(helper, players, mobs));
+    }
+
+    /**
+     * Waves of mobs are hit by every player with a Death's Dance and Nightstalker sword, then all
+     * killed at once, so each death credits every player. Players are hit by the wave too, so
+     * Ignore Pain has damage to store. Mob loot is off for the run, so the measured ticks aren't
+     * spent on the item and XP entities of over a thousand deaths.
+     */
+    @GameTest(template = ARENA, batch = "lifesteal_load_death_wave", timeoutTicks = TIMEOUT_TICKS)
+    public static void massDeathWave(GameTestHelper helper) {
+        MinecraftServer server = helper.getLevel().getServer();
+        GameRules.BooleanValue mobLoot = helper.getLevel().getGameRules().getRule(GameRules.RULE_DOMOBLOOT);
+        boolean dropLoot = mobLoot.get();
+        mobLoot.set(false, server);
+
+        List<ServerPlayer> players = spawnPlayers(helper, WAVE_PLAYERS);
+        ItemStack sword = enchanted(Items.NETHERITE_SWORD,
+                Main.DEATHS_DANCE_ENCHANTMENT.get(), Main.NIGHTSTALKER_ENCHANTMENT.get());
+        for (ServerPlayer player : players) {
+            player.setItemSlot(EquipmentSlot.MAINHAND, sword.copy());
+        }
+
+        List<Mob> wave = new ArrayList<>(WAVE_MOBS);
+        List<Mob> spawned = new ArrayList<>();
+        run(helper, "mass_death_wave", tick -> {
+            int phase = tick % WAVE_INTERVAL_TICKS;
+            if (phase == 0) {
+                wave.clear();
+                wave.addAll(spawnMobs(helper, WAVE_MOBS));
+                spawned.addAll(wave);
+                for (ServerPlayer player : players) {
+                    DamageSource source = helper.getLevel().damageSources().playerAttack(player);
+                    for (Mob mob : wave) {
+                        hit(mob, source, 0.1f);
+                    }
+                    hit(player, helper.getLevel().damageSources().mobAttack(wave.get(0)), 4.0f);
+                }
+            } else if (phase == WAVE_KILL_DELAY_TICKS) {
+                for (int i = 0; i < wave.size(); i++) {
+                    ServerPlayer killer = players.get(i % players.size());
+                    hit(wave.get(i), helper.getLevel().damageSources().playerAttack(killer), 1000.0f);
+                }
+            }
+            for (ServerPlayer player : players) {
+                player.setHealth(player.getMaxHealth());
+            }
+        }, () -> {
+            cleanUp(helper, players, spawned);
+            mobLoot.set(dropLoot, server);
+        });
+    }
+
+    /**
+     * Players in full RockSolid armor hit each other in a ring with Cleave swords, so the armor
+     * floor is re-evaluated on every hit against Cleave's shred. Some players also swap their boots
+     * now and then to exercise the equipment listener.
+     */
+    @GameTest(template = ARENA, batch = "lifesteal_load_rock_solid", timeoutTicks = TIMEOUT_TICKS)
+    public static void rockSolidPlayers(GameTestHelper helper) {
+        MinecraftServer server = helper.getLevel().getServer();
+        boolean pvp = server.isPvpAllowed();
+        server.setPvpAllowed(true);
+
+        List<ServerPlayer> players = spawnPlayers(helper, ROCK_SOLID_PLAYERS);
+        Enchantment rockSolid = Main.ROCK_SOLID_ENCHANTMENT.get();
+        ItemStack sword = enchanted(Items.IRON_SWORD, Main.CLEAVE_ENCHANTMENT.get());
+        ItemStack boots = enchanted(Items.LEATHER_BOOTS, rockSolid);
+        for (ServerPlayer player : players) {
+            player.setItemSlot(EquipmentSlot.HEAD, enchanted(Items.LEATHER_HELMET, rockSolid));
+            player.setItemSlot(EquipmentSlot.CHEST, enchanted(Items.LEATHER_CHESTPLATE, rockSolid));
+            player.setItemSlot(EquipmentSlot.LEGS, enchanted(Items.LEATHER_LEGGINGS, rockSolid));
+            player.setItemSlot(EquipmentSlot.FEET, boots.copy());
+            player.setItemSlot(EquipmentSlot.MAINHAND, sword.copy());
+        }
+
+        run(helper, "rock_solid_players", tick -> {
+            for (int i = 0; i < players.size(); i++) {
+                ServerPlayer attacker = players.get(i);
+                ServerPlayer victim = players.get((i + 1) % players.size());
+                hit(victim, helper.getLevel().damageSources().playerAttack(attacker), 4.0f);
+            }
+            if (tick % ARMOR_SWAP_INTERVAL_TICKS == 0) {
+                boolean wearing = tick / ARMOR_SWAP_INTERVAL_TICKS % 2 == 0;
+                for (int i = 0; i < players.size(); i += 10) {
+                    players.get(i).setItemSlot(EquipmentSlot.FEET, wearing ? ItemStack.EMPTY : boots.copy());
+                }
+            }
+            for (ServerPlayer player : players) {
+                player.setHealth(player.getMaxHealth());
+            }
+        }, () -> {
+            cleanUp(helper, players, List.of());
+            server.setPvpAllowed(pvp);
+        });
+    }
+
+    /**
+     * Runs the load every tick, samples tick times after the warmup, then reports and succeeds.
+     */
+    private static void run(GameTestHelper helper, String scenario, IntConsumer load, Runnable cleanUp) {
+        TickRecorder recorder = new TickRecorder(scenario, helper.getLevel().getServer());
+        int[] ticks = {0};
+        helper.onEachTick(() -> {
+            int tick = ticks[0]++;
+            // Each sample is the previous tick, so skip the one that ran before the warmup ended.
+            if (tick > WARMUP_TICKS) {
+                recorder.sample();
+            }
+            if (tick == WARMUP_TICKS + MEASURE_TICKS) {
+                recorder.report();
+                cleanUp.run();
+                helper.succeed();
+                return;
+            }
+            load.accept(tick);
+        });
+    }
+
+    private static void hit(LivingEntity target, DamageSource source, float amount) {
+        // Every hit should reach the pipeline, not bounce off the previous hit's invulnerability.
+        target.invulnerableTime = 0;
+        target.hurt(source, amount);
+    }
+
+    private static List<Mob> spawnMobs(GameTestHelper helper, int count) {
+        int perRow = ARENA_SIZE / 2 - 1;
+        List<Mob> mobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BlockPos pos = new BlockPos(1 + i % perRow * 2, 1, 1 + i / perRow * 2);
+            // Husks, so they don't burn in the test world's daylight.
+            mobs.add(helper.spawnWithNoFreeWill(EntityType.HUSK, pos));
+        }
+        return mobs;
+    }
+
+    private static List<ServerPlayer> spawnPlayers(GameTestHelper helper, int count) {
+        List<ServerPlayer> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ServerPlayer player = helper.makeMockServerPlayerInLevel();
+            player.setGameMode(GameType.SURVIVAL);
+            player.moveTo(helper.absoluteVec(new Vec3(1.5 + i % 10 * 4, 1, 0.5 + i / 10 * 4)));
+            players.add(player);
+        }
+        return players;
+    }
+
+    private static ItemStack enchanted(Item item, Enchantment... enchantments) {
+        ItemStack stack = new ItemStack(item);
+        for (Enchantment enchantment : enchantments) {
+            stack.enchant(enchantment, enchantment.getMaxLevel());
+        }
+        return stack;
+    }
+
+    private static void cleanUp(GameTestHelper helper, List<ServerPlayer> players, List<Mob> mobs) {
+        for (ServerPlayer player : players) {
+            helper.getLevel().getServer().getPlayerList().remove(player);
+        }
+        for (Mob mob : mobs) {
+            mob.discard();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.lifesteal.gametest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.lifesteal.Main;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.server.MinecraftServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Samples server tick times while a load scenario runs and writes them to a JSON report.
+ *
+ * Every scenario runs in its own GameTest batch, so the server is only ticking that scenario
+ * while it is sampled. The report ({@value #REPORT_FILE} in the run directory) holds the mean,
+ * p99 and max tick time of every scenario that finished in this run.
+ */
+public class TickRecorder {
+
+    private static final String REPORT_FILE = "lifesteal-load-report.json";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Map<String, JsonObject> RESULTS = new LinkedHashMap<>();
+
+    private final String scenario;
+    private final MinecraftServer server;
+    private final LongArrayList samples = new LongArrayList();
+
+    TickRecorder(String scenario, MinecraftServer server) {
+        this.scenario = scenario;
+        this.server = server;
+    }
+
+    /**
+     * Records the duration of the previous server tick. Call once per tick.
+     */
+    void sample() {
+        // The current tick's slot is only written once it completes, so read the previous one.
+        long nanos = server.tickTimes[Math.floorMod(server.getTickCount() - 1, server.tickTimes.length)];
+        if (nanos > 0) {
+            samples.add(nanos);
+        }
+    }
+
+    /**
+     * Adds this scenario's numbers to the report and rewrites it.
+     */
+    void report() {
+        long[] sorted = samples.toLongArray();
+        Arrays.sort(sorted);
+
+        JsonObject result = new JsonObject();
+        result.addProperty("ticks", sorted.length);
+        result.addProperty("mean_mspt", toMillis(mean(sorted)));
+        result.addProperty("p99_mspt", toMillis(percentile(sorted, 0.99)));
+        result.addProperty("max_mspt", toMillis(sorted.length > 0 ? sorted[sorted.length - 1] : 0));
+
+        synchronized (RESULTS) {
+            RESULTS.put(scenario, result);
+            write();
+        }
+        Main.LOGGER.info("Load scenario {}: {}", scenario, result);
+    }
+
+    private void write() {
+        JsonObject report = new JsonObject();
+        RESULTS.forEach(report::add);
+        File file = new File(server.getServerDirectory(), REPORT_FILE);
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(report, writer);
+        } catch (IOException e) {
+            Main.LOGGER.error("Failed to write load report to {}", file, e);
+        }
+    }
+
+    private static double mean(long[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
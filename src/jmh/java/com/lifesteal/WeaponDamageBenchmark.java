@@ -0,0 +1,78 @@
+package com.lifesteal;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+import net.minecraft.world.entity.ai.attributes.Attributes;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.enchantment.EnchantmentHelper;
+import net.minecraft.world.item.enchantment.Enchantments;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving a weapon's attack damage through {@link WeaponDamage#resolve}, for an
+ * enchanted sword (served from the per-item memo) and for a sword with NBT attribute modifiers
+ * (resolved from the stack, which builds the attribute Multimap). The baseline walks the stack's
+ * modifiers on every call, as the handlers did before the shared resolver.
+ *
+ * Only vanilla items are used, so bootstrapping the vanilla registries is enough.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeaponDamageBenchmark {
+
+    private ItemStack enchanted;
+    private ItemStack withModifiers;
+
+    @Setup
+    public void setUp() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        enchanted = new ItemStack(Items.NETHERITE_SWORD);
+        enchanted.enchant(Enchantments.SHARPNESS, 5);
+        enchanted.enchant(Enchantments.UNBREAKING, 3);
+        enchanted.setDamageValue(100);
+
+        withModifiers = enchanted.copy();
+        withModifiers.addAttributeModifier(Attributes.ATTACK_DAMAGE, new AttributeModifier(UUID.randomUUID(),
+                "benchmark", 7.0, AttributeModifier.Operation.ADDITION), EquipmentSlot.MAINHAND);
+    }
+
+    /**
+     * An enchanted, damaged weapon: its tag holds nothing attributes derive from.
+     */
+    @Benchmark
+    public float resolveEnchanted() {
+        return WeaponDamage.resolve(enchanted);
+    }
+
+    /**
+     * A weapon with its own attribute modifiers, which bypasses the memo.
+     */
+    @Benchmark
+    public float resolveWithNbtModifiers() {
+        return WeaponDamage.resolve(withModifiers);
+    }
+
+    /**
+     * Baseline: the modifiers walked on every call, as before the resolver existed.
+     */
+    @Benchmark
+    public float uncachedEnchanted() {
+        return WeaponDamage.applyModifiers(enchanted.getAttributeModifiers(EquipmentSlot.MAINHAND).get(Attributes.ATTACK_DAMAGE))
+                + WeaponDamage.sharpnessBonus(EnchantmentHelper.getItemEnchantmentLevel(Enchantments.SHARPNESS, enchanted));
+    }
+}
@@ -0,0 +1,86 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.configs.ConfigSnapshot;
+import net.minecraftforge.eventbus.api.EventPriority;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-hit overhead of the pipeline's stage dispatch alone: three bands of stages run through
+ * {@link CombatPipeline#runStages} (JFR proc event checks, timers), against the same stages
+ * called directly. The stages are trivial stand-ins laid out like the registered ones and the
+ * context has no entities, so none of the enchantment handlers run; this is not a measurement of
+ * a LivingHurtEvent pass. The real handlers need a running level and are measured under load by
+ * the GameTest scenarios in {@code src/gametest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CombatPipelineBenchmark {
+
+    @Param({"false", "true"})
+    boolean timed;
+
+    private final List<CombatPipeline.Stage> high = new ArrayList<>();
+    private final List<CombatPipeline.Stage> normal = new ArrayList<>();
+    private final List<CombatPipeline.Stage> low = new ArrayList<>();
+    private CombatContext context;
+    private float amount;
+
+    @Setup
+    public void setUp() {
+        context = new CombatContext(ConfigSnapshot.DEFAULTS);
+        // Same bands and enchantment ties as the registered stages.
+        stage(high, "shield_decay", EventPriority.HIGH, false);
+        stage(high, "deaths_dance_ignore_pain", EventPriority.HIGH, true);
+        stage(high, "lifeline", EventPriority.HIGH, true);
+        stage(high, "rock_solid", EventPriority.HIGH, true);
+        stage(normal, "lifesteal", EventPriority.NORMAL, true);
+        stage(normal, "cleave", EventPriority.NORMAL, true);
+        stage(normal, "moonrise", EventPriority.NORMAL, true);
+        stage(low, "nightstalker", EventPriority.LOW, true);
+        stage(low, "damage_attribution", EventPriority.LOW, false);
+        amount = 7.0f;
+    }
+
+    private void stage(List<CombatPipeline.Stage> band, String name, EventPriority priority, boolean enchantment) {
+        band.add(new CombatPipeline.Stage(name, priority, this::modify, CombatMetrics.timer("benchmark/" + name),
+                enchantment ? c -> 1 : null));
+    }
+
+    private void modify(CombatContext hit) {
+        amount = amount * 0.99f + 0.07f;
+    }
+
+    /**
+     * All three bands of one hit, through the pipeline's stage loop.
+     */
+    @Benchmark
+    public float dispatch() {
+        CombatPipeline.runStages(high, context, timed);
+        CombatPipeline.runStages(normal, context, timed);
+        CombatPipeline.runStages(low, context, timed);
+        return amount;
+    }
+
+    /**
+     * Baseline: the same stages called directly, with nothing around them.
+     */
+    @Benchmark
+    public float directCalls() {
+        for (int i = 0; i < 9; i++) {
+            modify(context);
+        }
+        return amount;
+    }
+}
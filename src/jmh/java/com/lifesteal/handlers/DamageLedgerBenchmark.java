@@ -0,0 +1,94 @@
+package com.lifesteal.handlers;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kill credit cost: recording player hits, and resolving a death the way
+ * {@link KillCreditTracker#onEntityDeath} does, with a number of players who hit the victim.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DamageLedgerBenchmark {
+
+    private static final int VICTIM = 1_000_000;
+    private static final long WINDOW = 60;
+
+    @Param({"10", "100", "1000"})
+    int players;
+
+    private DamageLedger ledger;
+    private long gameTime;
+
+    @Setup
+    public void setUp() {
+        ledger = new DamageLedger();
+        // Background noise: other victims being hit, so the victim's chain is interleaved.
+        for (int i = 0; i < 8192; i++) {
+            ledger.record(i % players, VICTIM + 1 + (i % 64), i / 64, 4.0f);
+        }
+        gameTime = 8192 / 64;
+    }
+
+    /**
+     * A single hit being recorded by the damage attribution stage.
+     */
+    @Benchmark
+    public void recordHit() {
+        ledger.record(7, VICTIM + 1, gameTime, 4.0f);
+    }
+
+    /**
+     * Every player hits the victim once, then the victim dies and its attackers are resolved.
+     */
+    @Benchmark
+    public void resolveDeath(Blackhole blackhole) {
+        long now = ++gameTime;
+        for (int attacker = 0; attacker < players; attacker++) {
+            ledger.record(attacker, VICTIM, now, 4.0f);
+        }
+
+        IntArrayList credited = new IntArrayList(4);
+        LongArrayList lastHitTimes = new LongArrayList(4);
+        ledger.collectAttackers(VICTIM, now - WINDOW, credited, lastHitTimes);
+        ledger.forget(VICTIM);
+        blackhole.consume(credited);
+        blackhole.consume(lastHitTimes);
+    }
+
+    /**
+     * Baseline for {@link #resolveDeath}: attackers deduplicated by scanning the list collected so
+     * far, as {@code collectAttackers} did before it used a set.
+     */
+    @Benchmark
+    public void resolveDeathListDedupe(Blackhole blackhole) {
+        long now = ++gameTime;
+        for (int attacker = 0; attacker < players; attacker++) {
+            ledger.record(attacker, VICTIM, now, 4.0f);
+        }
+
+        IntArrayList credited = new IntArrayList(4);
+        LongArrayList lastHitTimes = new LongArrayList(4);
+        ledger.forEachHit(VICTIM, now - WINDOW, (attacker, hitTime, damage) -> {
+            if (!credited.contains(attacker)) {
+                credited.add(attacker);
+                lastHitTimes.add(hitTime);
+            }
+        });
+        ledger.forget(VICTIM);
+        blackhole.consume(credited);
+        blackhole.consume(lastHitTimes);
+    }
+}
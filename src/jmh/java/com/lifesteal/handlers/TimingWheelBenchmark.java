@@ -0,0 +1,74 @@
+package com.lifesteal.handlers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of timed handler state on a level's {@link TimingWheel}, with a number of
+ * tracked entries. Entries behave like Cleave stacks: each one decays every few ticks and
+ * reschedules itself until it runs out, then starts over.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimingWheelBenchmark {
+
+    private static final int DECAY_TICKS = 6;
+    private static final int MAX_STACKS = 5;
+
+    @Param({"10", "100", "1000"})
+    int entries;
+
+    private TimingWheel decaying;
+    private TimingWheel waiting;
+    private long tick;
+
+    private final class Stack implements Runnable {
+        int stacks = MAX_STACKS;
+
+        @Override
+        public void run() {
+            if (--stacks <= 0) {
+                stacks = MAX_STACKS;
+            }
+            decaying.schedule(decaying.getCurrentTick() + DECAY_TICKS, this);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        decaying = new TimingWheel();
+        waiting = new TimingWheel();
+        for (int i = 0; i < entries; i++) {
+            // Spread the deadlines so every tick has its share of due entries.
+            decaying.schedule(1 + i % DECAY_TICKS, new Stack());
+            // Far enough out that they never come due during a run.
+            waiting.schedule(Long.MAX_VALUE / 2, () -> { });
+        }
+        tick = 0;
+    }
+
+    /**
+     * One level tick while the tracked entries are decaying.
+     */
+    @Benchmark
+    public void tickDecaying() {
+        decaying.advanceTo(++tick);
+    }
+
+    /**
+     * One level tick while the tracked entries are all waiting on later deadlines.
+     */
+    @Benchmark
+    public void tickWaiting() {
+        waiting.advanceTo(++tick);
+    }
+}
@@ -4,6 +4,12 @@ import com.lifesteal.configs.ClientConfig;
 import com.lifesteal.configs.Config;
 import com.lifesteal.configs.ServerConfig;
 import com.mojang.logging.LogUtils;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.damagesource.DamageType;
+import net.minecraft.world.effect.MobEffect;
 import net.minecraft.world.item.enchantment.Enchantment;
 import com.lifesteal.enchantments.LifestealEnchantment;
 import com.lifesteal.enchantments.CleaveEnchantment;
@@ -12,6 +18,8 @@ import com.lifesteal.enchantments.DeathsDanceEnchantment;
 import com.lifesteal.enchantments.LifelineEnchantment;
 import com.lifesteal.enchantments.NightstalkerEnchantment;
 import com.lifesteal.enchantments.RockSolidEnchantment;
+import com.lifesteal.effects.DeathsDanceBleedEffect;
+import com.lifesteal.effects.DeathsDanceHealEffect;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.eventbus.api.IEventBus;
@@ -52,6 +60,23 @@ public class Main {
     public static final RegistryObject<Enchantment> ROCK_SOLID_ENCHANTMENT =
             ENCHANTMENTS.register("rock_solid", RockSolidEnchantment::new);
 
+    public static final DeferredRegister<MobEffect> MOB_EFFECTS =
+            DeferredRegister.create(ForgeRegistries.MOB_EFFECTS, MODID);
+
+    public static final RegistryObject<MobEffect> DEATHS_DANCE_BLEED_EFFECT =
+            MOB_EFFECTS.register("deaths_dance_bleed", DeathsDanceBleedEffect::new);
+
+    public static final RegistryObject<MobEffect> DEATHS_DANCE_HEAL_EFFECT =
+            MOB_EFFECTS.register("deaths_dance_heal", DeathsDanceHealEffect::new);
+
+    // Damage types are data driven, see data/lifesteal/damage_type.
+    public static final ResourceKey<DamageType> DEATHS_DANCE_BLEED =
+            ResourceKey.create(Registries.DAMAGE_TYPE, new ResourceLocation(MODID, "deaths_dance_bleed"));
+
+    // Damage the mod deals by itself; the combat pipeline ignores it.
+    public static final TagKey<DamageType> INTERNAL_DAMAGE =
+            TagKey.create(Registries.DAMAGE_TYPE, new ResourceLocation(MODID, "internal"));
+
     private static FMLJavaModLoadingContext modLoadingContext;
     private static IEventBus modEventBus;
     public static Dist modSide;
@@ -75,6 +100,7 @@ public class Main {
 
         modEventBus.addListener(Config::onModConfigEvent);
         ENCHANTMENTS.register(modEventBus);
+        MOB_EFFECTS.register(modEventBus);
         MinecraftForge.EVENT_BUS.register(this);
 
         logInitMessage();
@@ -6,6 +6,8 @@ import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.ai.attributes.AttributeInstance;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 import net.minecraft.world.entity.ai.attributes.Attributes;
 import net.minecraft.world.entity.projectile.ProjectileUtil;
 import net.minecraft.world.phys.AABB;
@@ -13,6 +15,7 @@ import net.minecraft.world.phys.EntityHitResult;
 import net.minecraft.world.phys.Vec3;
 
 import java.util.Objects;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public class Utility {
@@ -64,4 +67,78 @@ public class Utility {
         Objects.requireNonNull(living.getAttribute(Attributes.ARMOR)).setBaseValue(armorValue);
         return true;
     }
+
+    /**
+     * Adds, updates or removes a transient armor modifier owned by this mod.
+     * The attribute is only touched when the amount actually changes, so repeated calls with
+     * the same value cause no attribute sync.
+     *
+     * @param living    The target living entity.
+     * @param id        Stable UUID identifying the modifier.
+     * @param name      Modifier name.
+     * @param amount    The new amount; 0 removes the modifier.
+     * @param operation How the amount is applied.
+     * @return true if the attribute was changed.
+     */
+    public static boolean setArmorModifier(LivingEntity living, UUID id, String name, double amount,
+                                           AttributeModifier.Operation operation) {
+        AttributeInstance armor = living.getAttribute(Attributes.ARMOR);
+        if (armor == null) {
+            return false;
+        }
+
+        AttributeModifier existing = armor.getModifier(id);
+        if (existing != null) {
+            if (existing.getAmount() == amount) {
+                return false;
+            }
+            armor.removeModifier(id);
+        } else if (amount == 0) {
+            return false;
+        }
+
+        if (amount != 0) {
+            armor.addTransientModifier(new AttributeModifier(id, name, amount, operation));
+        }
+        return true;
+    }
+
+    /**
+     * Computes the entity's armor as if the given modifiers were not applied,
+     * using the same order of operations as the attribute itself.
+     *
+     * @param living   The target living entity.
+     * @param excluded Modifier UUIDs to leave out.
+     * @return the armor value without those modifiers, or 0 if the entity has no armor attribute.
+     */
+    public static double getArmorExcluding(LivingEntity living, UUID... excluded) {
+        AttributeInstance armor = living.getAttribute(Attributes.ARMOR);
+        if (armor == null) {
+            return 0;
+        }
+
+        double added = armor.getBaseValue();
+        double multiplyBase = 0;
+        double multiplyTotal = 1;
+        for (AttributeModifier modifier : armor.getModifiers()) {
+            if (isExcluded(modifier.getId(), excluded)) {
+                continue;
+            }
+            switch (modifier.getOperation()) {
+                case ADDITION -> added += modifier.getAmount();
+                case MULTIPLY_BASE -> multiplyBase += modifier.getAmount();
+                case MULTIPLY_TOTAL -> multiplyTotal *= 1.0 + modifier.getAmount();
+            }
+        }
+        return armor.getAttribute().sanitizeValue((added + added * multiplyBase) * multiplyTotal);
+    }
+
+    private static boolean isExcluded(UUID id, UUID[] excluded) {
+        for (UUID candidate : excluded) {
+            if (candidate.equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,128 @@
+package com.lifesteal;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+import net.minecraft.world.entity.ai.attributes.Attributes;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.enchantment.EnchantmentHelper;
+import net.minecraft.world.item.enchantment.Enchantments;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the attack damage of a weapon, shared by every effect that scales with weapon AD.
+ *
+ * The damage is what the weapon deals on a plain hit: the player's base 1.0 with the item's main hand
+ * attack damage modifiers applied, plus the Sharpness bonus. The modifiers come from
+ * {@code getAttributeModifiers(slot, stack)}, so item overrides and {@code ItemAttributeModifierEvent}
+ * listeners are included. The value is computed once per {@link Item} and shared by every stack whose
+ * tag holds nothing but enchantments, durability and anvil repair cost, which covers ordinary
+ * enchanted weapons. A stack with any other tag entry (NBT attribute modifiers, modded weapon state)
+ * is resolved from the stack every time. Callers cache the result per equipment change, see
+ * {@code EnchantmentLoadout}.
+ *
+ * A modifier that depends on something the memo key leaves out (enchantments, durability or a
+ * stack's capabilities) is memoized per item and may be stale until the next tag reload.
+ *
+ * Datapacks can change item attributes through tag driven events, so the cache is dropped on every
+ * tag reload and {@link #generation()} is bumped to let callers drop values derived from it.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class WeaponDamage {
+
+    private static final double PLAYER_BASE_DAMAGE = 1.0;
+
+    // Item doesn't override equals/hashCode, so this is keyed by identity. Concurrent since
+    // levels may resolve weapons from their own tick threads.
+    private static final Map<Item, Float> BASE_DAMAGE = new ConcurrentHashMap<>();
+    private static volatile int generation;
+
+    // Tag entries that vanilla never derives attribute modifiers from.
+    private static final Set<String> NON_ATTRIBUTE_TAGS = Set.of(ItemStack.TAG_ENCH, ItemStack.TAG_DAMAGE, "RepairCost");
+
+    /**
+     * @return the weapon's attack damage including Sharpness.
+     */
+    public static float resolve(ItemStack weapon) {
+        return resolve(weapon, EnchantmentHelper.getItemEnchantmentLevel(Enchantments.SHARPNESS, weapon));
+    }
+
+    /**
+     * Same as {@link #resolve(ItemStack)} for callers that already read the Sharpness level.
+     */
+    public static float resolve(ItemStack weapon, int sharpnessLevel) {
+        return baseDamage(weapon) + sharpnessBonus(sharpnessLevel);
+    }
+
+    /**
+     * Sharpness adds 0.5 * level + 0.5 damage.
+     */
+    public static float sharpnessBonus(int sharpnessLevel) {
+        return sharpnessLevel > 0 ? 0.5f * sharpnessLevel + 0.5f : 0.0f;
+    }
+
+    /**
+     * @return a counter that changes whenever cached weapon damage may have become stale.
+     */
+    public static int generation() {
+        return generation;
+    }
+
+    private static float baseDamage(ItemStack weapon) {
+        if (!sharesItemDamage(weapon.getTag())) {
+            return computeBaseDamage(weapon);
+        }
+        return BASE_DAMAGE.computeIfAbsent(weapon.getItem(), item -> computeBaseDamage(new ItemStack(item)));
+    }
+
+    /**
+     * @return true if the tag has nothing that could give the stack modifiers of its own.
+     */
+    private static boolean sharesItemDamage(CompoundTag tag) {
+        if (tag == null) {
+            return true;
+        }
+        for (String key : tag.getAllKeys()) {
+            if (!NON_ATTRIBUTE_TAGS.contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static float computeBaseDamage(ItemStack weapon) {
+        return applyModifiers(weapon.getAttributeModifiers(EquipmentSlot.MAINHAND).get(Attributes.ATTACK_DAMAGE));
+    }
+
+    /**
+     * Applies attack damage modifiers to the player's base damage, in the same order as the
+     * attribute system does.
+     */
+    static float applyModifiers(Collection<AttributeModifier> modifiers) {
+        double added = PLAYER_BASE_DAMAGE;
+        double baseMultiplier = 0.0;
+        double totalMultiplier = 1.0;
+        for (AttributeModifier modifier : modifiers) {
+            switch (modifier.getOperation()) {
+                case ADDITION -> added += modifier.getAmount();
+                case MULTIPLY_BASE -> baseMultiplier += modifier.getAmount();
+                case MULTIPLY_TOTAL -> totalMultiplier *= 1.0 + modifier.getAmount();
+            }
+        }
+        return (float) Math.max(0.0, added * (1.0 + baseMultiplier) * totalMultiplier);
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        BASE_DAMAGE.clear();
+        generation++;
+    }
+}
@@ -1,6 +1,7 @@
 package com.lifesteal.client;
 
 import com.lifesteal.Main;
+import com.lifesteal.configs.Config;
 import com.lifesteal.configs.ServerConfig;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.components.Button;
@@ -130,6 +131,7 @@ public class ConfigScreen extends Screen {
             entry.save();
         }
         ServerConfig.CONFIG.save();
+        Config.refreshSnapshot();
     }
 
     private void resetToDefaults() {
@@ -137,6 +139,7 @@ public class ConfigScreen extends Screen {
             entry.reset();
         }
         ServerConfig.CONFIG.save();
+        Config.refreshSnapshot();
     }
 
     @Override
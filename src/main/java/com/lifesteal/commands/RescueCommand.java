@@ -1,6 +1,7 @@
 package com.lifesteal.commands;
 
 import com.lifesteal.handlers.DeathsDanceHandler;
+import com.lifesteal.handlers.NightstalkerHandler;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.context.CommandContext;
 import net.minecraft.commands.CommandSourceStack;
@@ -20,7 +21,7 @@ public class RescueCommand {
      *   /rescue - Rescues yourself
      *   /rescue <player> - Rescues the specified player (requires OP)
      *
-     * This command clears all Deaths Dance effects and fully heals the player.
+     * This command clears all Deaths Dance effects and Nightstalker invulnerability, and fully heals the player.
      * Useful as a safety fallback if Death's Dance causes a bugged state.
      */
     public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
@@ -89,7 +90,8 @@ public class RescueCommand {
     private static void rescuePlayer(Player player) {
         // CRITICAL: Clear Deaths Dance data MULTIPLE times to ensure it's gone
         // This handles any race conditions or re-initialization issues
-        DeathsDanceHandler.clearPlayerData(player.getUUID());
+        DeathsDanceHandler.clearPlayerData(player);
+        NightstalkerHandler.clearInvulnerability(player);
         
         // Force remove any dying/dead state FIRST
         if (player.isDeadOrDying()) {
@@ -104,7 +106,7 @@ public class RescueCommand {
         player.setHealth(player.getMaxHealth());
         
         // Clear Deaths Dance data again after healing to catch any new entries
-        DeathsDanceHandler.clearPlayerData(player.getUUID());
+        DeathsDanceHandler.clearPlayerData(player);
         
         // Give absorption hearts as a buffer (2 extra hearts)
         player.setAbsorptionAmount(4.0f);
@@ -0,0 +1,93 @@
+package com.lifesteal.commands;
+
+import com.lifesteal.handlers.CombatMetrics;
+import com.lifesteal.handlers.HealAccumulator;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+public class StatsCommand {
+
+    /**
+     * Register the "lifesteal stats" command.
+     * Usage:
+     *   /lifesteal stats - Shows handler timings and proc counts (requires OP)
+     *   /lifesteal stats reset - Counts them from zero again (requires OP); the exported
+     *                            metrics keep their totals since server start
+     *
+     * Timings and procs are only recorded while metrics are enabled in the server config.
+     * Heal totals come from the heal accumulator and are always recorded.
+     */
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(
+                Commands.literal("lifesteal")
+                        .requires(source -> source.hasPermission(2))
+                        .then(Commands.literal("stats")
+                                .executes(context -> executeShow(context))
+                                .then(Commands.literal("reset")
+                                        .executes(context -> executeReset(context))
+                                )
+                        )
+        );
+    }
+
+    /**
+     * Prints every timer and counter that recorded something since the last reset
+     */
+    private static int executeShow(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+
+        if (!CombatMetrics.isEnabled()) {
+            source.sendSuccess(
+                    () -> Component.literal("§eMetrics are disabled. Set metrics.enabled in lifesteal-server.toml to record timings and procs."),
+                    false
+            );
+        }
+
+        source.sendSuccess(() -> Component.literal("§6Handler timings (calls, mean, p99, max):"), false);
+        for (CombatMetrics.Timer timer : CombatMetrics.getTimers()) {
+            long calls = timer.count();
+            if (calls == 0) {
+                continue;
+            }
+            String line = String.format("§7  %s: §f%d§7, %s, %s, %s", timer.name(), calls,
+                    formatNanos(timer.meanNanos()), formatNanos(timer.percentileNanos(0.99)), formatNanos(timer.maxNanos()));
+            source.sendSuccess(() -> Component.literal(line), false);
+        }
+
+        source.sendSuccess(() -> Component.literal("§6Procs (count, amount):"), false);
+        for (CombatMetrics.Counter counter : CombatMetrics.Counter.values()) {
+            long count = counter.count();
+            if (count == 0) {
+                continue;
+            }
+            String line = String.format("§7  %s: §f%d§7, %.1f", counter.label(), count, counter.amount());
+            source.sendSuccess(() -> Component.literal(line), false);
+        }
+
+        String heals = String.format("§6Heals: §f%d§6 requested, §f%d§6 applied, §f%.1f§6 HP",
+                HealAccumulator.getHealsRequested(), HealAccumulator.getHealsApplied(), HealAccumulator.getTotalHealed());
+        source.sendSuccess(() -> Component.literal(heals), false);
+
+        return 1;
+    }
+
+    /**
+     * Restarts the shown timers, counters and heal totals from zero
+     */
+    private static int executeReset(CommandContext<CommandSourceStack> context) {
+        CombatMetrics.reset();
+        HealAccumulator.resetStats();
+        context.getSource().sendSuccess(() -> Component.literal("§aLifeSteal stats reset."), true);
+        return 1;
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format("%.2f ms", nanos / 1_000_000.0);
+        }
+        return String.format("%.1f µs", nanos / 1_000.0);
+    }
+}
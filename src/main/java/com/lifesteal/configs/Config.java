@@ -9,80 +9,111 @@ import net.minecraftforge.fml.event.config.ModConfigEvent;
 @Mod.EventBusSubscriber(modid = Main.MODID, bus = Mod.EventBusSubscriber.Bus.MOD)
 public class Config {
 
+    // Current server config values; replaced as a whole on load/reload.
+    private static volatile ConfigSnapshot snapshot = ConfigSnapshot.DEFAULTS;
+
+    /**
+     * @return the current config snapshot. Read it once and keep using the same instance
+     * when several values must agree with each other, e.g. for the duration of one hit.
+     */
+    public static ConfigSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Rebuilds the snapshot from the server config, e.g. after values were edited in-game.
+     */
+    public static void refreshSnapshot() {
+        snapshot = ConfigSnapshot.fromServerConfig();
+    }
+
     public static double getLifestealPercent() {
-        return ServerConfig.LIFESTEAL_PERCENT.get();
+        return snapshot.lifestealPercent();
     }
 
     public static double getDamageIncreasePercent() {
-        return ServerConfig.DAMAGE_INCREASE_PERCENT.get();
+        return snapshot.damageIncreasePercent();
     }
 
     public static double getCleavePercent() {
-        return ServerConfig.CLEAVE_PERCENT.get();
+        return snapshot.cleavePercent();
     }
 
     public static int getCleaveMaxStacks() {
-        return ServerConfig.CLEAVE_MAX_STACKS.get();
+        return snapshot.cleaveMaxStacks();
     }
 
     // Moonrise getters
     public static int getMoonriseHitWindowTicks() {
-        return ServerConfig.MOONRISE_HIT_WINDOW_TICKS.get();
+        return snapshot.moonriseHitWindowTicks();
     }
 
     public static int getMoonriseCooldownTicks() {
-        return ServerConfig.MOONRISE_COOLDOWN_TICKS.get();
+        return snapshot.moonriseCooldownTicks();
     }
 
     public static double getMoonriseDamagePercent() {
-        return ServerConfig.MOONRISE_DAMAGE_PERCENT.get();
+        return snapshot.moonriseDamagePercent();
     }
 
     public static int getMoonriseEffectDurationTicks() {
-        return ServerConfig.MOONRISE_EFFECT_DURATION_TICKS.get();
+        return snapshot.moonriseEffectDurationTicks();
     }
 
     // Death's Dance getters
     public static double getDeathsDanceReductionPerLevel() {
-        return ServerConfig.DEATHS_DANCE_REDUCTION_PER_LEVEL.get();
+        return snapshot.deathsDanceReductionPerLevel();
     }
 
     public static double getDeathsDanceHealPercent() {
-        return ServerConfig.DEATHS_DANCE_HEAL_PERCENT.get();
+        return snapshot.deathsDanceHealPercent();
     }
 
     public static int getDeathsDanceDamageIntervalTicks() {
-        return ServerConfig.DEATHS_DANCE_DAMAGE_INTERVAL_TICKS.get();
+        return snapshot.deathsDanceDamageIntervalTicks();
     }
 
     // Lifeline getters
     public static double getLifelineHealthThreshold() {
-        return ServerConfig.LIFELINE_HEALTH_THRESHOLD.get();
+        return snapshot.lifelineHealthThreshold();
     }
 
     public static int getLifelineCooldownTicks() {
-        return ServerConfig.LIFELINE_COOLDOWN_TICKS.get();
+        return snapshot.lifelineCooldownTicks();
     }
 
     public static double getLifelineShieldMultiplier() {
-        return ServerConfig.LIFELINE_SHIELD_MULTIPLIER.get();
+        return snapshot.lifelineShieldMultiplier();
     }
 
     public static int getLifelineShieldDurationTicks() {
-        return ServerConfig.LIFELINE_SHIELD_DURATION_TICKS.get();
+        return snapshot.lifelineShieldDurationTicks();
     }
 
     // Nightstalker getters
     public static double getNightstalkerDamagePerLevel() {
-        return ServerConfig.NIGHTSTALKER_DAMAGE_PER_LEVEL.get();
+        return snapshot.nightstalkerDamagePerLevel();
     }
 
     public static int getNightstalkerInvisibilityDuration() {
-        return ServerConfig.NIGHTSTALKER_INVISIBILITY_DURATION.get();
+        return snapshot.nightstalkerInvisibilityDuration();
     }
 
     public static int getNightstalkerKillCreditWindow() {
-        return ServerConfig.NIGHTSTALKER_KILL_CREDIT_WINDOW.get();
+        return snapshot.nightstalkerKillCreditWindow();
+    }
+
+    // Metrics getters
+    public static boolean isMetricsEnabled() {
+        return snapshot.metricsEnabled();
+    }
+
+    public static String getMetricsExportFile() {
+        return snapshot.metricsExportFile();
+    }
+
+    public static int getMetricsExportIntervalSeconds() {
+        return snapshot.metricsExportIntervalSeconds();
     }
 
     // Listen to config loading/reloading events
@@ -92,6 +123,7 @@ public class Config {
             if (event.getConfig().getSpec() == ClientConfig.CONFIG) {
                 Main.LOGGER.debug("LifestealMod Client Config reloaded/loaded.");
             } else if (event.getConfig().getSpec() == ServerConfig.CONFIG) {
+                refreshSnapshot();
                 try {
                     Main.LOGGER.debug(
                         "LifestealMod Server Config reloaded/loaded. Values:\n" +
@@ -100,7 +132,8 @@ public class Config {
                         "  [Moonrise] Hit Window: {}t, Cooldown: {}t, Damage: {}%, Effect Duration: {}t\n" +
                         "  [Death's Dance] Reduction/Lvl: {}%, Heal: {}%, Damage Interval: {}t\n" +
                         "  [Lifeline] Health Threshold: {}%, Cooldown: {}t, Shield Mult: {}, Shield Duration: {}t\n" +
-                        "  [Nightstalker] Damage/Lvl: {}%, Invulnerability: {}t, Kill Credit: {}t",
+                        "  [Nightstalker] Damage/Lvl: {}%, Invulnerability: {}t, Kill Credit: {}t\n" +
+                        "  [Metrics] Enabled: {}, Export File: '{}', Export Interval: {}s",
                         ServerConfig.LIFESTEAL_PERCENT.get() * 100,
                         ServerConfig.DAMAGE_INCREASE_PERCENT.get() * 100,
                         ServerConfig.CLEAVE_PERCENT.get() * 100,
@@ -118,7 +151,10 @@ public class Config {
                         ServerConfig.LIFELINE_SHIELD_DURATION_TICKS.get(),
                         ServerConfig.NIGHTSTALKER_DAMAGE_PER_LEVEL.get() * 100,
                         ServerConfig.NIGHTSTALKER_INVISIBILITY_DURATION.get(),
-                        ServerConfig.NIGHTSTALKER_KILL_CREDIT_WINDOW.get()
+                        ServerConfig.NIGHTSTALKER_KILL_CREDIT_WINDOW.get(),
+                        ServerConfig.METRICS_ENABLED.get(),
+                        ServerConfig.METRICS_EXPORT_FILE.get(),
+                        ServerConfig.METRICS_EXPORT_INTERVAL_SECONDS.get()
                     );
                 } catch (Exception e) {
                     Main.LOGGER.error("Failed to log server config values after event", e);
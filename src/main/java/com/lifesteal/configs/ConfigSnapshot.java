@@ -0,0 +1,96 @@
+package com.lifesteal.configs;
+
+/**
+ * Immutable copy of the server config values, read by the combat handlers.
+ *
+ * A new snapshot is built whenever the server config is loaded or reloaded, so the hot damage
+ * path reads plain primitive fields instead of going through ForgeConfigSpec lookups and
+ * unboxing, and every hit sees one consistent set of values during a hot reload.
+ */
+public record ConfigSnapshot(
+        double lifestealPercent,
+        double damageIncreasePercent,
+        double cleavePercent,
+        int cleaveMaxStacks,
+        int moonriseHitWindowTicks,
+        int moonriseCooldownTicks,
+        double moonriseDamagePercent,
+        int moonriseEffectDurationTicks,
+        double deathsDanceReductionPerLevel,
+        double deathsDanceHealPercent,
+        int deathsDanceDamageIntervalTicks,
+        double lifelineHealthThreshold,
+        int lifelineCooldownTicks,
+        double lifelineShieldMultiplier,
+        int lifelineShieldDurationTicks,
+        double nightstalkerDamagePerLevel,
+        int nightstalkerInvisibilityDuration,
+        int nightstalkerKillCreditWindow,
+        boolean metricsEnabled,
+        String metricsExportFile,
+        int metricsExportIntervalSeconds
+) {
+
+    /**
+     * Snapshot of the spec defaults, used until the server config is first loaded.
+     */
+    public static final ConfigSnapshot DEFAULTS = new ConfigSnapshot(
+            ServerConfig.LIFESTEAL_PERCENT.getDefault(),
+            ServerConfig.DAMAGE_INCREASE_PERCENT.getDefault(),
+            ServerConfig.CLEAVE_PERCENT.getDefault(),
+            ServerConfig.CLEAVE_MAX_STACKS.getDefault(),
+            ServerConfig.MOONRISE_HIT_WINDOW_TICKS.getDefault(),
+            ServerConfig.MOONRISE_COOLDOWN_TICKS.getDefault(),
+            ServerConfig.MOONRISE_DAMAGE_PERCENT.getDefault(),
+            ServerConfig.MOONRISE_EFFECT_DURATION_TICKS.getDefault(),
+            ServerConfig.DEATHS_DANCE_REDUCTION_PER_LEVEL.getDefault(),
+            ServerConfig.DEATHS_DANCE_HEAL_PERCENT.getDefault(),
+            ServerConfig.DEATHS_DANCE_DAMAGE_INTERVAL_TICKS.getDefault(),
+            ServerConfig.LIFELINE_HEALTH_THRESHOLD.getDefault(),
+            ServerConfig.LIFELINE_COOLDOWN_TICKS.getDefault(),
+            ServerConfig.LIFELINE_SHIELD_MULTIPLIER.getDefault(),
+            ServerConfig.LIFELINE_SHIELD_DURATION_TICKS.getDefault(),
+            ServerConfig.NIGHTSTALKER_DAMAGE_PER_LEVEL.getDefault(),
+            ServerConfig.NIGHTSTALKER_INVISIBILITY_DURATION.getDefault(),
+            ServerConfig.NIGHTSTALKER_KILL_CREDIT_WINDOW.getDefault(),
+            ServerConfig.METRICS_ENABLED.getDefault(),
+            ServerConfig.METRICS_EXPORT_FILE.getDefault(),
+            ServerConfig.METRICS_EXPORT_INTERVAL_SECONDS.getDefault()
+    );
+
+    /**
+     * Reads the current values of the loaded server config.
+     */
+    static ConfigSnapshot fromServerConfig() {
+        return new ConfigSnapshot(
+                ServerConfig.LIFESTEAL_PERCENT.get(),
+                ServerConfig.DAMAGE_INCREASE_PERCENT.get(),
+                ServerConfig.CLEAVE_PERCENT.get(),
+                ServerConfig.CLEAVE_MAX_STACKS.get(),
+                ServerConfig.MOONRISE_HIT_WINDOW_TICKS.get(),
+                ServerConfig.MOONRISE_COOLDOWN_TICKS.get(),
+                ServerConfig.MOONRISE_DAMAGE_PERCENT.get(),
+                ServerConfig.MOONRISE_EFFECT_DURATION_TICKS.get(),
+                ServerConfig.DEATHS_DANCE_REDUCTION_PER_LEVEL.get(),
+                ServerConfig.DEATHS_DANCE_HEAL_PERCENT.get(),
+                ServerConfig.DEATHS_DANCE_DAMAGE_INTERVAL_TICKS.get(),
+                ServerConfig.LIFELINE_HEALTH_THRESHOLD.get(),
+                ServerConfig.LIFELINE_COOLDOWN_TICKS.get(),
+                ServerConfig.LIFELINE_SHIELD_MULTIPLIER.get(),
+                ServerConfig.LIFELINE_SHIELD_DURATION_TICKS.get(),
+                ServerConfig.NIGHTSTALKER_DAMAGE_PER_LEVEL.get(),
+                ServerConfig.NIGHTSTALKER_INVISIBILITY_DURATION.get(),
+                ServerConfig.NIGHTSTALKER_KILL_CREDIT_WINDOW.get(),
+                ServerConfig.METRICS_ENABLED.get(),
+                ServerConfig.METRICS_EXPORT_FILE.get(),
+                ServerConfig.METRICS_EXPORT_INTERVAL_SECONDS.get()
+        );
+    }
+
+    /**
+     * Longest window any takedown effect accepts for kill credit.
+     */
+    public long killCreditWindowTicks() {
+        return Math.max(deathsDanceDamageIntervalTicks * 3L, nightstalkerKillCreditWindow);
+    }
+}
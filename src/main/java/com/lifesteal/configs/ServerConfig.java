@@ -35,6 +35,11 @@ public class ServerConfig {
     public static final ForgeConfigSpec.IntValue NIGHTSTALKER_INVISIBILITY_DURATION;
     public static final ForgeConfigSpec.IntValue NIGHTSTALKER_KILL_CREDIT_WINDOW;
 
+    // Metrics config
+    public static final ForgeConfigSpec.BooleanValue METRICS_ENABLED;
+    public static final ForgeConfigSpec.ConfigValue<String> METRICS_EXPORT_FILE;
+    public static final ForgeConfigSpec.IntValue METRICS_EXPORT_INTERVAL_SECONDS;
+
     static {
         // Optional: Group the settings under a "server" category.
         BUILDER.comment("Server configuration for Main").push("server");
@@ -131,6 +136,23 @@ public class ServerConfig {
         
         BUILDER.pop();
 
+        // Metrics settings
+        BUILDER.comment("Combat Metrics Settings").push("metrics");
+
+        METRICS_ENABLED = BUILDER
+                .comment("Record handler timings and proc counts for /lifesteal stats (small overhead per hit while enabled)")
+                .define("enabled", false);
+
+        METRICS_EXPORT_FILE = BUILDER
+                .comment("Prometheus text file the metrics are periodically written to, e.g. for the node-exporter textfile collector. Relative to the server directory; empty disables the export")
+                .define("export_file", "");
+
+        METRICS_EXPORT_INTERVAL_SECONDS = BUILDER
+                .comment("Interval between metrics exports in seconds")
+                .defineInRange("export_interval_seconds", 15, 1, 3600);
+
+        BUILDER.pop();
+
         BUILDER.pop();
         CONFIG = BUILDER.build();
     }
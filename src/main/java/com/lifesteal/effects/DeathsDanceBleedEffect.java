@@ -0,0 +1,40 @@
+package com.lifesteal.effects;
+
+import com.lifesteal.handlers.DeathsDanceHandler;
+import net.minecraft.world.effect.MobEffect;
+import net.minecraft.world.effect.MobEffectCategory;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Death's Dance stored damage. The effect lasts one damage interval and applies a third of the
+ * stored damage on its last tick; {@link DeathsDanceHandler} renews it while damage remains.
+ * The stored amount itself lives in the player's combat data.
+ */
+public class DeathsDanceBleedEffect extends MobEffect {
+    public DeathsDanceBleedEffect() {
+        super(MobEffectCategory.HARMFUL, 0x8A0303);
+    }
+
+    @Override
+    public boolean isDurationEffectTick(int duration, int amplifier) {
+        return duration == 1;
+    }
+
+    @Override
+    public void applyEffectTick(LivingEntity entity, int amplifier) {
+        if (entity instanceof Player player && !player.level().isClientSide) {
+            DeathsDanceHandler.applyStoredDamage(player);
+        }
+    }
+
+    // Milk must not drop the stored damage.
+    @Override
+    public List<ItemStack> getCurativeItems() {
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,31 @@
+package com.lifesteal.effects;
+
+import com.lifesteal.handlers.DeathsDanceHandler;
+import net.minecraft.world.effect.MobEffect;
+import net.minecraft.world.effect.MobEffectCategory;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * Death's Dance healing after a takedown (Defy). Pulses every {@link #PULSE_INTERVAL} ticks;
+ * the remaining amount lives in the player's combat data.
+ */
+public class DeathsDanceHealEffect extends MobEffect {
+    public static final int PULSE_INTERVAL = 2;
+
+    public DeathsDanceHealEffect() {
+        super(MobEffectCategory.BENEFICIAL, 0xE8C547);
+    }
+
+    @Override
+    public boolean isDurationEffectTick(int duration, int amplifier) {
+        return duration % PULSE_INTERVAL == 0;
+    }
+
+    @Override
+    public void applyEffectTick(LivingEntity entity, int amplifier) {
+        if (entity instanceof Player player && !player.level().isClientSide) {
+            DeathsDanceHandler.applyHealingPulse(player);
+        }
+    }
+}
@@ -1,53 +1,60 @@
 package com.lifesteal.handlers;
 
-import com.lifesteal.Main;
 import com.lifesteal.Utility;
 import com.lifesteal.configs.Config;
+import com.lifesteal.configs.ConfigSnapshot;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.profiling.ProfilerFiller;
+import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 import net.minecraft.world.entity.ai.attributes.Attributes;
-import net.minecraft.world.item.enchantment.EnchantmentHelper;
-import net.minecraftforge.event.TickEvent;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.UUID;
 
 /**
  * This class implements a ticking cleave effect. When a player with the CLEAVE enchantment
  * attacks a target, a cleave “stack” is added. Each stack shreds a percentage of the target’s
- * original armor (using getCleavePercent() as the armor shred percentage per stack). The first
+ * armor (using getCleavePercent() as the armor shred percentage per stack). The first
  * stack decays after 2 seconds (40 ticks) after the last hit; thereafter, each remaining stack
  * decays every 0.3 seconds (6 ticks). If a new hit would reduce the target’s effective armor below 0,
  * extra damage is applied based on the overshoot.
+ *
+ * State lives in the target level's {@link LevelCombatState}, keyed by entity id, so nothing here
+ * keeps an entity alive. Decay runs on that level's scheduler and looks the target up again by id,
+ * and entries are dropped when the entity leaves its level (death, chunk unload or dimension change).
+ *
+ * Cleave shreds the target's base armor only; armor from equipment and other modifiers is left
+ * alone. The shred is a single transient ADDITION armor modifier taking off the shredded part of
+ * the base value, updated only when the stack count changes. The base value itself is never
+ * rewritten, so there is nothing to restore and other armor changes made in the meantime are
+ * preserved.
  */
 @Mod.EventBusSubscriber
 public class CleaveHandler {
 
-    // Stores per-target cleave data.
-    private static final Map<LivingEntity, CleaveData> CLEAVE_DATA = new HashMap<>();
+    private static final UUID CLEAVE_MODIFIER_ID = UUID.fromString("6f1c2a4e-8d3b-4c7a-9e51-2b0d7c3f5a18");
+    private static final String CLEAVE_MODIFIER_NAME = "Cleave armor shred";
 
-    private static class CleaveData {
+    static class CleaveData {
         int stacks;                   // Current number of cleave stacks on this target.
-        int ticksUntilNextRemoval;    // Countdown (in ticks) until a stack is removed.
-        double originalArmor;         // The target’s armor value before any cleave reduction.
+        long nextRemovalAt;           // Game time at which the next stack is removed.
     }
 
     /**
-     * Called when a LivingHurtEvent is fired.
+     * Combat stage (NORMAL priority), dispatched by {@link CombatPipeline}.
      * If the attacker is a player with a CLEAVE-enchanted weapon, update the target’s cleave data.
      */
-    @SubscribeEvent
-    public static void onLivingHurt(LivingHurtEvent event) {
-        if (!(event.getSource().getEntity() instanceof Player)) {
+    static void onLivingHurt(CombatContext context) {
+        if (context.attacker == null) {
             return;
         }
-        Player player = (Player) event.getSource().getEntity();
-        handleCleave(event, player);
+        handleCleave(context.event, context.attackerLoadout.cleave, context.config);
     }
 
     /**
@@ -55,105 +62,152 @@ public class CleaveHandler {
      * <ul>
      *   <li>Each consecutive attack by a player with the CLEAVE enchantment increases the target’s cleave stack
      *       (up to a maximum defined in the config).</li>
-     *   <li>Each cleave stack shreds a percentage of the target’s original armor:
-     *       effectiveArmor = originalArmor * (1 - (cleavePercent * stacks)).</li>
+     *   <li>Each cleave stack shreds a percentage of the target’s base armor (the attribute's base
+     *       value, not armor from equipment or modifiers):
+     *       effectiveArmor = baseArmor * (1 - (cleavePercent * stacks)).</li>
      *   <li>If the effective armor would go negative, the overshoot is converted into extra damage (multiplied
      *       by an extra factor, here 0.5 per point of overshoot).</li>
-     *   <li>The target’s armor is updated via setEntityArmor().</li>
+     *   <li>The shred is applied as an armor modifier via applyShred().</li>
      * </ul>
      */
-    private static void handleCleave(LivingHurtEvent event, Player player) {
-        ItemStack weapon = player.getMainHandItem();
+    private static void handleCleave(LivingHurtEvent event, int cleaveLevel, ConfigSnapshot config) {
         LivingEntity target = event.getEntity();
 
         // Check if the weapon has the CLEAVE enchantment.
-        int cleaveLevel = EnchantmentHelper.getItemEnchantmentLevel(Main.CLEAVE_ENCHANTMENT.get(), weapon);
-        if (cleaveLevel > 0) {
-            int maxStacks = Config.getCleaveMaxStacks();
-            // getCleavePercent() returns the armor shred percentage per stack.
+        if (cleaveLevel > 0 && target.level() instanceof ServerLevel level) {
+            int maxStacks = config.cleaveMaxStacks();
+            // cleavePercent() returns the armor shred percentage per stack.
             // For example, 0.1 means each stack reduces the original armor by 10%.
-            double armorShredPercent = Config.getCleavePercent();
+            double armorShredPercent = config.cleavePercent();
 
             // Retrieve (or create) the cleave data for this target.
-            CleaveData data = CLEAVE_DATA.get(target);
+            LevelCombatState state = LevelCombatState.get(level);
+            int targetId = target.getId();
+            CleaveData data = state.cleaveData.get(targetId);
             if (data == null) {
                 data = new CleaveData();
                 data.stacks = 0;
-                data.ticksUntilNextRemoval = 40; // 2 seconds (40 ticks) before the first stack removal.
-                // Save the target’s current (original) armor.
-                data.originalArmor = target.getAttribute(Attributes.ARMOR).getBaseValue();
-                CLEAVE_DATA.put(target, data);
+                state.cleaveData.put(targetId, data);
+                // 2 seconds (40 ticks) before the first stack removal.
+                data.nextRemovalAt = level.getGameTime() + 40;
+                scheduleRemoval(state, targetId, data);
             } else {
-                // Reset the decay timer on each hit.
-                data.ticksUntilNextRemoval = 40;
+                // Reset the decay timer on each hit. The pending removal notices the later
+                // deadline when it fires and reschedules itself, so a hit is just a field write.
+                data.nextRemovalAt = level.getGameTime() + 40;
             }
             if (data.stacks < maxStacks) {
                 data.stacks++;
+                CombatMetrics.count(CombatMetrics.Counter.CLEAVE_STACKS);
+                // Only a new stack changes the shred; hits at max stacks leave the attribute alone.
+                applyShred(target, data.stacks, armorShredPercent);
             }
 
-            // Calculate the effective armor after applying the cleave stacks.
-            double effectiveArmor = data.originalArmor * (1 - armorShredPercent * data.stacks);
+            // Calculate the effective base armor after applying the cleave stacks.
+            double effectiveArmor = target.getAttributeBaseValue(Attributes.ARMOR) * (1 - armorShredPercent * data.stacks);
             float damageMultiplier = 1.0f;
 
             // If effective armor would drop below 0, convert the overshoot into extra damage.
             if (effectiveArmor < 0) {
                 double overshoot = Math.abs(effectiveArmor);
                 damageMultiplier += (float)(overshoot * 0.5);  // 0.5 is an arbitrary factor.
-                effectiveArmor = 0;
             }
 
-            // Update the target’s armor using our helper function.
-            Utility.setEntityArmor(target, effectiveArmor);
-
             // Apply the (possibly extra) damage.
             event.setAmount(event.getAmount() * damageMultiplier);
         }
     }
 
     /**
-     * Server tick event handler.
-     * Decrements each target’s timer; when it reaches 0, one cleave stack is removed.
+     * Sets the shred modifier for the given stack count: the shredded part of the base armor, taken
+     * off as an addition. A player's RockSolid floor is re-evaluated afterwards, so it tops up
+     * whatever the new shred takes below it.
+     */
+    private static void applyShred(LivingEntity target, int stacks, double armorShredPercent) {
+        double shred = target.getAttributeBaseValue(Attributes.ARMOR) * Math.min(armorShredPercent * stacks, 1.0);
+        boolean changed = Utility.setArmorModifier(target, CLEAVE_MODIFIER_ID, CLEAVE_MODIFIER_NAME, -shred,
+                AttributeModifier.Operation.ADDITION);
+        if (changed && target instanceof Player player) {
+            RockSolidHandler.applyArmorFloor(player);
+        }
+    }
+
+    /**
+     * @return the UUID of the armor modifier used for the cleave shred.
+     */
+    public static UUID getShredModifierId() {
+        return CLEAVE_MODIFIER_ID;
+    }
+
+    private static void scheduleRemoval(LevelCombatState state, int targetId, CleaveData data) {
+        state.scheduleAt(data.nextRemovalAt, () -> removeStack(state, targetId, data));
+    }
+
+    private static void removeStack(LevelCombatState state, int targetId, CleaveData data) {
+        ProfilerFiller profiler = state.level.getProfiler();
+        profiler.push("cleave_decay");
+        EnchantProcEvent proc = EnchantProcEvent.startIfEnabled();
+        decayStack(state, targetId, data);
+        if (proc != null) {
+            proc.record("cleave", 0, "decay");
+        }
+        profiler.pop();
+    }
+
+    /**
+     * Scheduled decay: removes one cleave stack from the target.
      * After the first removal, subsequent stacks decay every 6 ticks (≈0.3 seconds).
-     * When no stacks remain, the target’s armor is reset to its original value.
+     * When no stacks remain, the shred modifier is removed.
      */
-    @SubscribeEvent
-    public static void onServerTick(TickEvent.ServerTickEvent event) {
-        // Process only at the end of the tick.
-        if (event.phase != TickEvent.Phase.END) {
+    private static void decayStack(LevelCombatState state, int targetId, CleaveData data) {
+        // The entry was dropped (entity left the level) or replaced since this was scheduled.
+        if (state.cleaveData.get(targetId) != data) {
             return;
         }
 
-        Iterator<Map.Entry<LivingEntity, CleaveData>> iter = CLEAVE_DATA.entrySet().iterator();
-        while (iter.hasNext()) {
-            Map.Entry<LivingEntity, CleaveData> entry = iter.next();
-            LivingEntity target = entry.getKey();
-            CleaveData data = entry.getValue();
+        // Clean up dead/removed entities
+        LivingEntity target = state.level.getEntity(targetId) instanceof LivingEntity living ? living : null;
+        if (target == null || !target.isAlive()) {
+            state.cleaveData.remove(targetId);
+            return;
+        }
 
-            // Add this check to clean up dead/removed entities
-            if (!target.isAlive() || target.isRemoved()) {
-                iter.remove();
-                continue;
-            }
+        // The target was hit again since this removal was scheduled.
+        long currentTime = state.level.getGameTime();
+        if (currentTime < data.nextRemovalAt) {
+            scheduleRemoval(state, targetId, data);
+            return;
+        }
 
-            data.ticksUntilNextRemoval--;
-            if (data.ticksUntilNextRemoval <= 0) {
-                // Remove one cleave stack.
-                data.stacks--;
-                if (data.stacks > 0) {
-                    // After the first removal, subsequent removals occur every 6 ticks (≈0.3 seconds).
-                    data.ticksUntilNextRemoval = 6;
-                    double armorShredPercent = Config.getCleavePercent();
-                    double effectiveArmor = data.originalArmor * (1 - armorShredPercent * data.stacks);
-                    if (effectiveArmor < 0) {
-                        effectiveArmor = 0;
-                    }
-                    Utility.setEntityArmor(target, effectiveArmor);
-                } else {
-                    // No stacks remain; reset the target’s armor.
-                    Utility.setEntityArmor(target, data.originalArmor);
-                    iter.remove();
-                }
-            }
+        // Remove one cleave stack.
+        data.stacks--;
+        if (data.stacks > 0) {
+            // After the first removal, subsequent removals occur every 6 ticks (≈0.3 seconds).
+            data.nextRemovalAt = currentTime + 6;
+            scheduleRemoval(state, targetId, data);
+            applyShred(target, data.stacks, Config.getCleavePercent());
+        } else {
+            // No stacks remain; lift the shred.
+            applyShred(target, 0, 0);
+            state.cleaveData.remove(targetId);
+        }
+    }
+
+    /**
+     * Drops the target's cleave state when it leaves its level, lifting the shred first
+     * in case the entity object is reused (e.g. a player changing dimension).
+     */
+    @SubscribeEvent
+    public static void onEntityLeaveLevel(EntityLeaveLevelEvent event) {
+        Entity entity = event.getEntity();
+        if (!(event.getLevel() instanceof ServerLevel level) || !(entity instanceof LivingEntity living)) {
+            return;
+        }
+
+        LevelCombatState state = LevelCombatState.getIfPresent(level);
+        CleaveData data = state != null ? state.cleaveData.remove(entity.getId()) : null;
+        if (data != null) {
+            applyShred(living, 0, 0);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import com.lifesteal.configs.Config;
+import com.lifesteal.configs.ConfigSnapshot;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+
+/**
+ * Per-hit view of a LivingHurtEvent shared by every combat stage.
+ *
+ * The attacker, the victim, both sides' combat data and cached enchantment loadouts are resolved once
+ * when the pipeline first sees the event, no matter how many stages read them. The config
+ * snapshot is captured at the same time, so every stage of a hit sees the same values even if
+ * the config is reloaded mid-hit.
+ */
+public class CombatContext {
+
+    final LivingHurtEvent event;
+    final LivingEntity victim;
+    final Player attacker;      // Null when the damage was not dealt by a player.
+    final Player victimPlayer;  // Null when the victim is not a player.
+    final PlayerCombatData attackerData;  // Null when the attacker is not a player.
+    final PlayerCombatData victimData;    // Null when the victim is not a player.
+    final EnchantmentLoadout attackerLoadout;
+    final EnchantmentLoadout victimLoadout;
+    final ConfigSnapshot config;
+    final boolean internal;     // The mod's own damage (e.g. Death's Dance bleed), which no stage reacts to.
+
+    CombatContext(LivingHurtEvent event) {
+        this.event = event;
+        this.internal = event.getSource().is(Main.INTERNAL_DAMAGE);
+        this.victim = event.getEntity();
+        this.attacker = event.getSource().getEntity() instanceof Player player ? player : null;
+        this.victimPlayer = victim instanceof Player player ? player : null;
+        this.attackerData = attacker != null ? PlayerCombatData.get(attacker) : null;
+        this.victimData = victimPlayer != null ? PlayerCombatData.get(victimPlayer) : null;
+        this.attackerLoadout = attacker != null ? LoadoutCache.get(attacker, attackerData) : EnchantmentLoadout.EMPTY;
+        this.victimLoadout = victimPlayer != null ? LoadoutCache.get(victimPlayer, victimData) : EnchantmentLoadout.EMPTY;
+        this.config = Config.snapshot();
+    }
+
+    /**
+     * A context without an event or entities, for running stages that don't read them, e.g. to
+     * measure the pipeline outside the game.
+     */
+    CombatContext(ConfigSnapshot config) {
+        this.event = null;
+        this.internal = false;
+        this.victim = null;
+        this.attacker = null;
+        this.victimPlayer = null;
+        this.attackerData = null;
+        this.victimData = null;
+        this.attackerLoadout = EnchantmentLoadout.EMPTY;
+        this.victimLoadout = EnchantmentLoadout.EMPTY;
+        this.config = config;
+    }
+
+    /**
+     * @return true if neither side of the hit is a player or the damage is the mod's own,
+     * so no stage should apply.
+     */
+    boolean isIrrelevant() {
+        return internal || (attacker == null && victimPlayer == null);
+    }
+}
@@ -0,0 +1,265 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.configs.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and proc counts for the combat handlers, reported by {@code /lifesteal stats}.
+ *
+ * Disabled by default ({@code metrics.enabled} in the server config). While disabled, each
+ * instrumented entry point costs one read of the config snapshot: no clock reads and no counter
+ * updates. Everything is kept in adders, since levels may tick on separate threads.
+ *
+ * The adders only ever grow, so exported counters stay monotonic. {@link #reset()} moves a
+ * baseline instead: the plain accessors report what was recorded since the last reset, for
+ * {@code /lifesteal stats}, and the {@code SinceStart} ones everything since the server started.
+ */
+public class CombatMetrics {
+
+    /**
+     * Things handlers count, each with an optional amount (HP healed, stored, added...).
+     */
+    public enum Counter {
+        LIFESTEAL_HEALS("lifesteal heals"),
+        CLEAVE_STACKS("cleave stacks applied"),
+        MOONRISE_PROCS("moonrise procs"),
+        LIFELINE_PROCS("lifeline procs"),
+        IGNORE_PAIN_STORED("ignore pain hits stored"),
+        STORED_DAMAGE_CLEARED("stored damage cleared"),
+        DEFY_PROCS("defy procs"),
+        NIGHTSTALKER_BONUS("nightstalker bonus hits"),
+        NIGHTSTALKER_INVULNERABILITY("nightstalker takedowns"),
+        ROCK_SOLID_HITS("rock solid hits"),
+        KILL_CREDITS("kill credits");
+
+        private final String label;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder amount = new DoubleAdder();
+        private volatile long countBaseline;
+        private volatile double amountBaseline;
+
+        Counter(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public long count() {
+            return count.sum() - countBaseline;
+        }
+
+        public double amount() {
+            return amount.sum() - amountBaseline;
+        }
+
+        public long countSinceStart() {
+            return count.sum();
+        }
+
+        public double amountSinceStart() {
+            return amount.sum();
+        }
+
+        private void reset() {
+            countBaseline = count.sum();
+            amountBaseline = amount.sum();
+        }
+    }
+
+    /**
+     * Duration histogram of one entry point, in power-of-two buckets starting at 1 µs.
+     */
+    public static final class Timer {
+        private static final int BUCKETS = 20; // Last bucket is open-ended, from ~268 ms
+
+        /**
+         * Values at the last reset, subtracted by the accessors that report since then.
+         */
+        private record Baseline(long count, long totalNanos, long[] buckets) {
+            static final Baseline ZERO = new Baseline(0, 0, new long[BUCKETS]);
+        }
+
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0); // Since the last reset.
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private volatile Baseline baseline = Baseline.ZERO;
+
+        private Timer(String name) {
+            this.name = name;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            // Bucket i holds durations below 1024 << i ns.
+            int bucket = Math.min(64 - Long.numberOfLeadingZeros(nanos >>> 10), BUCKETS - 1);
+            buckets[bucket].increment();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long count() {
+            return count.sum() - baseline.count();
+        }
+
+        public long meanNanos() {
+            long count = count();
+            return count == 0 ? 0 : totalNanos() / count;
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum() - baseline.totalNanos();
+        }
+
+        /**
+         * @return the number of durations in each bucket. Bucket i holds durations below
+         * {@link #bucketBoundNanos}(i), the last one everything longer.
+         */
+        public long[] bucketCounts() {
+            long[] counts = bucketCountsSinceStart();
+            long[] subtracted = baseline.buckets();
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] -= subtracted[i];
+            }
+            return counts;
+        }
+
+        public long totalNanosSinceStart() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * Same as {@link #bucketCounts()}, but since the server started.
+         */
+        public long[] bucketCountsSinceStart() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        public static long bucketBoundNanos(int bucket) {
+            return 1024L << bucket;
+        }
+
+        /**
+         * @return the upper bound of the bucket the percentile falls in, capped at the maximum.
+         */
+        public long percentileNanos(double percentile) {
+            long[] counts = bucketCounts();
+            long count = 0;
+            for (long bucket : counts) {
+                count += bucket;
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS - 1; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketBoundNanos(i), maxNanos());
+                }
+            }
+            return maxNanos();
+        }
+
+        private void reset() {
+            baseline = new Baseline(count.sum(), totalNanos.sum(), bucketCountsSinceStart());
+            maxNanos.reset();
+        }
+    }
+
+    // Registered while the handler classes initialize, read by the stats command and the exporter.
+    private static final Map<String, Timer> TIMERS = new LinkedHashMap<>();
+
+    /**
+     * Returns the timer with the given name, creating it on first use.
+     */
+    static Timer timer(String name) {
+        synchronized (TIMERS) {
+            return TIMERS.computeIfAbsent(name, Timer::new);
+        }
+    }
+
+    /**
+     * @return every timer, in registration order.
+     */
+    public static List<Timer> getTimers() {
+        synchronized (TIMERS) {
+            return Collections.unmodifiableList(new ArrayList<>(TIMERS.values()));
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Config.snapshot().metricsEnabled();
+    }
+
+    /**
+     * Starts timing an entry point.
+     *
+     * @return the start time to hand to {@link #stop}, or 0 when metrics are disabled.
+     */
+    static long start() {
+        return isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time since {@link #start}, unless metrics were disabled when it was taken.
+     */
+    static void stop(Timer timer, long start) {
+        if (start != 0) {
+            timer.record(System.nanoTime() - start);
+        }
+    }
+
+    static void count(Counter counter) {
+        if (isEnabled()) {
+            counter.count.increment();
+        }
+    }
+
+    static void count(Counter counter, double amount) {
+        if (isEnabled()) {
+            counter.count.increment();
+            counter.amount.add(amount);
+        }
+    }
+
+    /**
+     * Starts counting timings and counts from zero again for {@code /lifesteal stats}. The
+     * since-start totals the exporter reads are left alone.
+     */
+    public static void reset() {
+        for (Timer timer : getTimers()) {
+            timer.reset();
+        }
+        for (Counter counter : Counter.values()) {
+            counter.reset();
+        }
+    }
+}
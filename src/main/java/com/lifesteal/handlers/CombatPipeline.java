@@ -0,0 +1,159 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import net.minecraft.util.profiling.ProfilerFiller;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Single LivingHurtEvent entry point for every enchantment handler.
+ *
+ * Stages are grouped into the same EventPriority bands the handlers used to subscribe with,
+ * so other mods' damage modifiers still run between our HIGH, NORMAL and LOW work. Each band
+ * is one listener, and the attacker/victim context is resolved once per event and shared by
+ * all bands. Within a band, stages run in the order they are registered below.
+ *
+ * Each band runs in one profiler section ({@code lifesteal_combat_high}, {@code _normal} and
+ * {@code _low}); per-stage times are kept by the stage timers instead. While a JFR recording has
+ * it enabled, stages tied to an enchantment report an {@link EnchantProcEvent} for hits where it
+ * is equipped.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class CombatPipeline {
+
+    /**
+     * A single enchantment effect applied to a hit.
+     */
+    @FunctionalInterface
+    interface CombatStage {
+        void apply(CombatContext context);
+    }
+
+    /**
+     * A named stage, so the execution order can be listed and measured.
+     * {@code level} reads the level of the stage's enchantment for a hit; null for stages not
+     * tied to one.
+     */
+    public record Stage(String name, EventPriority priority, CombatStage handler, CombatMetrics.Timer timer,
+                        ToIntFunction<CombatContext> level) {
+    }
+
+    private static final List<Stage> HIGH_STAGES = new ArrayList<>();
+    private static final List<Stage> NORMAL_STAGES = new ArrayList<>();
+    private static final List<Stage> LOW_STAGES = new ArrayList<>();
+
+    // Context of the event currently travelling through the bands. Per thread, since levels
+    // may tick (and fire LivingHurtEvent) on separate threads.
+    private static final ThreadLocal<CombatContext> CURRENT = new ThreadLocal<>();
+
+    static {
+        // Defensive effects see the raw incoming damage, before NORMAL modifiers.
+        register("shield_decay", EventPriority.HIGH, ShieldEngine::onPlayerHurt, null);
+        register("deaths_dance_ignore_pain", EventPriority.HIGH, DeathsDanceHandler::onPlayerHurt, c -> c.victimLoadout.deathsDance);
+        register("lifeline", EventPriority.HIGH, LifelineHandler::onPlayerHurt, c -> c.victimLoadout.lifeline);
+        register("rock_solid", EventPriority.HIGH, RockSolidHandler::onPlayerHurt, c -> c.victimLoadout.rockSolidPieces);
+
+        register("lifesteal", EventPriority.NORMAL, EventHandler::onLivingHurt,
+                c -> Math.max(c.attackerLoadout.lifesteal, c.victimLoadout.lifesteal));
+        register("cleave", EventPriority.NORMAL, CleaveHandler::onLivingHurt, c -> c.attackerLoadout.cleave);
+        register("moonrise", EventPriority.NORMAL, MoonriseHandler::onLivingHurt, c -> c.attackerLoadout.moonrise);
+
+        // Nightstalker scales the final amount, so it runs after everything else has modified it.
+        register("nightstalker", EventPriority.LOW, NightstalkerHandler::onPlayerAttack, c -> c.attackerLoadout.nightstalker);
+        // Kill credit records the final amount once per hit for every takedown effect.
+        register("damage_attribution", EventPriority.LOW, KillCreditTracker::onPlayerAttack, null);
+    }
+
+    private static void register(String name, EventPriority priority, CombatStage handler, ToIntFunction<CombatContext> level) {
+        Stage stage = new Stage(name, priority, handler, CombatMetrics.timer("stage/" + name), level);
+        switch (priority) {
+            case HIGH -> HIGH_STAGES.add(stage);
+            case NORMAL -> NORMAL_STAGES.add(stage);
+            case LOW -> LOW_STAGES.add(stage);
+            default -> throw new IllegalArgumentException("Unsupported combat stage priority: " + priority);
+        }
+    }
+
+    /**
+     * @return every registered stage, in execution order.
+     */
+    public static List<Stage> getStages() {
+        List<Stage> stages = new ArrayList<>(HIGH_STAGES.size() + NORMAL_STAGES.size() + LOW_STAGES.size());
+        stages.addAll(HIGH_STAGES);
+        stages.addAll(NORMAL_STAGES);
+        stages.addAll(LOW_STAGES);
+        return Collections.unmodifiableList(stages);
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGH)
+    public static void onLivingHurtHigh(LivingHurtEvent event) {
+        dispatch(event, HIGH_STAGES, "lifesteal_combat_high");
+    }
+
+    @SubscribeEvent(priority = EventPriority.NORMAL)
+    public static void onLivingHurtNormal(LivingHurtEvent event) {
+        dispatch(event, NORMAL_STAGES, "lifesteal_combat_normal");
+    }
+
+    /**
+     * Also receives canceled events, so the context is dropped even when another mod cancels the
+     * hit in an earlier band; the LOW stages themselves only run for live events.
+     */
+    @SubscribeEvent(priority = EventPriority.LOW, receiveCanceled = true)
+    public static void onLivingHurtLow(LivingHurtEvent event) {
+        if (!event.isCanceled()) {
+            dispatch(event, LOW_STAGES, "lifesteal_combat_low");
+        }
+        // Last band for this event; drop the reference so the entities are not retained.
+        CURRENT.remove();
+    }
+
+    private static void dispatch(LivingHurtEvent event, List<Stage> stages, String section) {
+        CombatContext context = contextFor(event);
+        if (context.isIrrelevant()) {
+            return;
+        }
+        ProfilerFiller profiler = context.victim.level().getProfiler();
+        profiler.push(section);
+        runStages(stages, context, context.config.metricsEnabled());
+        profiler.pop();
+    }
+
+    /**
+     * Runs one band's stages on a hit, timing each one if {@code timed} is set.
+     */
+    static void runStages(List<Stage> stages, CombatContext context, boolean timed) {
+        for (Stage stage : stages) {
+            EnchantProcEvent proc = stage.level() != null ? EnchantProcEvent.startIfEnabled() : null;
+            long start = timed ? System.nanoTime() : 0;
+
+            stage.handler().apply(context);
+
+            if (timed) {
+                stage.timer().record(System.nanoTime() - start);
+            }
+            if (proc != null) {
+                int level = stage.level().applyAsInt(context);
+                if (level > 0) {
+                    proc.record(stage.name(), level, "hit");
+                }
+            }
+        }
+    }
+
+    private static CombatContext contextFor(LivingHurtEvent event) {
+        CombatContext context = CURRENT.get();
+        if (context == null || context.event != event) {
+            context = new CombatContext(event);
+            CURRENT.set(context);
+        }
+        return context;
+    }
+}
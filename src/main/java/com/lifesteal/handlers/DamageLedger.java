@@ -0,0 +1,138 @@
+package com.lifesteal.handlers;
+
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Fixed-size ring buffer of recent player hits, shared by every takedown-based enchantment.
+ *
+ * Each hit is recorded once as (attacker, victim, game time, damage), with both sides identified
+ * by entity id, so a ledger belongs to a single level. Entries for the same
+ * victim are chained newest-to-oldest, so a windowed query for one victim only walks that
+ * victim's recent hits. Old entries are overwritten in place, which bounds memory without
+ * any per-tick cleanup; the time window of a query decides what still counts.
+ *
+ * Not thread-safe; the ledger is written and read from its level's tick thread.
+ */
+public class DamageLedger {
+
+    private static final int DEFAULT_CAPACITY = 16384; // Power of two.
+    private static final long NONE = -1L;
+
+    /**
+     * Receives the hits matched by a query, newest first.
+     */
+    @FunctionalInterface
+    public interface HitVisitor {
+        void visit(int attackerId, long gameTime, float damage);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final int[] attackers;
+    private final int[] victims;
+    private final long[] times;
+    private final float[] damages;
+    private final long[] previousForVictim; // Sequence number of the same victim's previous hit.
+    private final Int2LongOpenHashMap latestByVictim = new Int2LongOpenHashMap();
+    private final IntOpenHashSet seenAttackers = new IntOpenHashSet(); // Scratch set for collectAttackers.
+    private long nextSequence;
+
+    public DamageLedger() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DamageLedger(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ledger capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.attackers = new int[capacity];
+        this.victims = new int[capacity];
+        this.times = new long[capacity];
+        this.damages = new float[capacity];
+        this.previousForVictim = new long[capacity];
+        this.latestByVictim.defaultReturnValue(NONE);
+    }
+
+    /**
+     * Records a single hit.
+     */
+    public void record(int attackerId, int victimId, long gameTime, float damage) {
+        long sequence = nextSequence++;
+        int slot = (int) (sequence & mask);
+
+        // Overwriting the oldest entry; if it was its victim's newest hit, the whole chain is gone.
+        if (sequence >= capacity && latestByVictim.get(victims[slot]) == sequence - capacity) {
+            latestByVictim.remove(victims[slot]);
+        }
+
+        attackers[slot] = attackerId;
+        victims[slot] = victimId;
+        times[slot] = gameTime;
+        damages[slot] = damage;
+        previousForVictim[slot] = latestByVictim.put(victimId, sequence);
+    }
+
+    /**
+     * Visits the victim's hits recorded at or after {@code sinceGameTime}, newest first.
+     */
+    public void forEachHit(int victimId, long sinceGameTime, HitVisitor visitor) {
+        long sequence = latestByVictim.get(victimId);
+        long oldestLive = nextSequence - capacity;
+        while (sequence != NONE && sequence >= oldestLive) {
+            int slot = (int) (sequence & mask);
+            if (times[slot] < sinceGameTime) {
+                break;
+            }
+            visitor.visit(attackers[slot], times[slot], damages[slot]);
+            sequence = previousForVictim[slot];
+        }
+    }
+
+    /**
+     * Adds each distinct attacker of the victim since {@code sinceGameTime} to {@code attackerIds},
+     * with the time of their latest hit at the same index of {@code lastHitTimes}.
+     */
+    public void collectAttackers(int victimId, long sinceGameTime, IntArrayList attackerIds, LongArrayList lastHitTimes) {
+        // Hits come newest first, so the first one per attacker is their latest. The set keeps the
+        // dedupe linear when many players hit the same victim, and is kept between calls so a
+        // death doesn't allocate one. The chain is walked inline for the same reason.
+        seenAttackers.clear();
+        long sequence = latestByVictim.get(victimId);
+        long oldestLive = nextSequence - capacity;
+        while (sequence != NONE && sequence >= oldestLive) {
+            int slot = (int) (sequence & mask);
+            if (times[slot] < sinceGameTime) {
+                break;
+            }
+            if (seenAttackers.add(attackers[slot])) {
+                attackerIds.add(attackers[slot]);
+                lastHitTimes.add(times[slot]);
+            }
+            sequence = previousForVictim[slot];
+        }
+    }
+
+    /**
+     * Forgets every hit on the victim, e.g. once its death has been resolved.
+     */
+    public void forget(int victimId) {
+        latestByVictim.remove(victimId);
+    }
+
+    /**
+     * @return the number of victims with at least one hit still in the buffer.
+     */
+    public int trackedVictims() {
+        return latestByVictim.size();
+    }
+
+    public void clear() {
+        latestByVictim.clear();
+        nextSequence = 0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.stats.Stats;
+import net.minecraft.tags.DamageTypeTags;
+import net.minecraft.world.damagesource.CombatRules;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.effect.MobEffects;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.ai.attributes.Attributes;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.enchantment.EnchantmentHelper;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Applies the mod's own damage over time at the end of the server tick.
+ *
+ * Queued damage is written straight to absorption and health instead of going through
+ * {@code hurt()}, so a damage tick doesn't fan out into LivingAttackEvent, LivingHurtEvent and
+ * every listener behind them (our own pipeline included). Clients still get the hurt animation
+ * and sound, and the combat tracker records the source for death messages. Damage that would kill
+ * takes the regular {@code hurt()} path so death is handled by vanilla; the source must be tagged
+ * {@code lifesteal:internal} so the combat pipeline ignores it.
+ *
+ * The checks {@code hurt()} would make are mirrored: entities invulnerable to the source
+ * (creative and spectator players included) and players in their Nightstalker window take
+ * nothing, and the amount is reduced by armor, Resistance and Protection as vanilla does, each
+ * unless the source's damage type bypasses it. What is not reproduced: armor and shields don't
+ * lose durability, the Resistance statistics aren't awarded, and other mods' attack, hurt and
+ * damage listeners never see the damage.
+ *
+ * Damage may be queued from level threads (e.g. from effect ticks); it is applied on the server
+ * thread once every level has ticked.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class DamageQueue {
+
+    private record Entry(LivingEntity entity, DamageSource source, float amount) {
+    }
+
+    private static final Queue<Entry> PENDING = new ConcurrentLinkedQueue<>();
+    private static final CombatMetrics.Timer FLUSH_TIMER = CombatMetrics.timer("damage_queue_flush");
+
+    /**
+     * Queues damage to be applied at the end of the current server tick.
+     */
+    public static void queue(LivingEntity entity, DamageSource source, float amount) {
+        if (amount > 0) {
+            PENDING.add(new Entry(entity, source, amount));
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOW)
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) {
+            return;
+        }
+
+        if (PENDING.isEmpty()) {
+            return;
+        }
+
+        long start = CombatMetrics.start();
+        Entry entry;
+        while ((entry = PENDING.poll()) != null) {
+            apply(entry.entity, entry.source, entry.amount);
+        }
+        CombatMetrics.stop(FLUSH_TIMER, start);
+    }
+
+    private static void apply(LivingEntity entity, DamageSource source, float amount) {
+        if (!entity.isAlive() || entity.isInvulnerableTo(source)) {
+            return;
+        }
+        if (entity instanceof Player player && !source.is(DamageTypeTags.BYPASSES_INVULNERABILITY)
+                && NightstalkerHandler.isInvulnerable(player)) {
+            return;
+        }
+
+        float absorption = entity.getAbsorptionAmount();
+        float reduced = reduce(entity, source, amount);
+        if (reduced >= entity.getHealth() + absorption) {
+            // Lethal: let vanilla run the death (events, drops, death message). hurt() applies
+            // the reductions itself, so it gets the queued amount.
+            entity.invulnerableTime = 0;
+            entity.hurt(source, amount);
+            return;
+        }
+
+        if (reduced <= 0) {
+            return;
+        }
+        float absorbed = Math.min(absorption, reduced);
+        if (absorbed > 0) {
+            entity.setAbsorptionAmount(absorption - absorbed);
+        }
+        float remaining = reduced - absorbed;
+        if (remaining > 0) {
+            entity.getCombatTracker().recordDamage(source, remaining);
+            entity.setHealth(entity.getHealth() - remaining);
+            if (entity instanceof ServerPlayer player) {
+                player.awardStat(Stats.DAMAGE_TAKEN, Math.round(remaining * 10.0f));
+            }
+        }
+        entity.level().broadcastDamageEvent(entity, source);
+    }
+
+    /**
+     * Applies armor, Resistance and Protection the way {@code LivingEntity.actuallyHurt} does,
+     * without the durability and statistics side effects.
+     */
+    private static float reduce(LivingEntity entity, DamageSource source, float amount) {
+        if (!source.is(DamageTypeTags.BYPASSES_ARMOR)) {
+            amount = CombatRules.getDamageAfterAbsorb(amount, entity.getArmorValue(),
+                    (float) entity.getAttributeValue(Attributes.ARMOR_TOUGHNESS));
+        }
+        if (source.is(DamageTypeTags.BYPASSES_EFFECTS)) {
+            return amount;
+        }
+        MobEffectInstance resistance = entity.getEffect(MobEffects.DAMAGE_RESISTANCE);
+        if (resistance != null && !source.is(DamageTypeTags.BYPASSES_RESISTANCE)) {
+            amount = Math.max(amount * (25 - (resistance.getAmplifier() + 1) * 5) / 25.0f, 0.0f);
+        }
+        if (amount <= 0 || source.is(DamageTypeTags.BYPASSES_ENCHANTMENTS)) {
+            return amount;
+        }
+        int protection = EnchantmentHelper.getDamageProtection(entity.getArmorSlots(), source);
+        return protection > 0 ? CombatRules.getDamageAfterMagicAbsorb(amount, protection) : amount;
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        PENDING.clear();
+    }
+}
@@ -2,131 +2,125 @@ package com.lifesteal.handlers;
 
 import com.lifesteal.Main;
 import com.lifesteal.configs.Config;
-import net.minecraft.world.entity.LivingEntity;
+import com.lifesteal.configs.ConfigSnapshot;
+import com.lifesteal.effects.DeathsDanceHealEffect;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.util.profiling.ProfilerFiller;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.effect.MobEffect;
+import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.enchantment.EnchantmentHelper;
-import net.minecraft.world.item.enchantment.Enchantments;
-import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.event.entity.living.MobEffectEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
-import java.util.*;
-
 /**
  * Handles the Death's Dance enchantment effect.
- * 
+ *
  * Ignore Pain: Reduces a percentage of damage taken and stores it to deal as true damage over 3 seconds.
  * Defy: If an enemy dies within 3 seconds of being damaged by the player, clears stored damage and heals.
+ *
+ * Stored damage and healing tick through two mob effects (bleed and heal), so they run in the player's
+ * own effect update, show up as effect icons, and are saved with the player. The amounts themselves live
+ * in the player's {@link PlayerCombatData}; the effects only drive the timing.
  */
 @Mod.EventBusSubscriber
 public class DeathsDanceHandler {
 
-    private static final Map<UUID, PlayerDanceData> DANCE_DATA = new HashMap<>();
+    private static final int HEALING_PULSES = 20; // 20 pulses, 2 ticks apart = 2 seconds
+    private static final CombatMetrics.Timer BLEED_TIMER = CombatMetrics.timer("deaths_dance_bleed");
+    private static final CombatMetrics.Timer HEAL_TIMER = CombatMetrics.timer("deaths_dance_heal");
 
     /**
      * Public method to clear all Deaths Dance data for a player.
      * Used by the rescue command and other cleanup operations.
-     * Completely removes the player from the tracking system.
      */
-    public static void clearPlayerData(UUID playerUUID) {
-        // Completely remove the player from the map to ensure clean slate
-        DANCE_DATA.remove(playerUUID);
+    public static void clearPlayerData(Player player) {
+        PlayerDanceData data = PlayerCombatData.get(player).dance;
+        data.clearStoredDamage();
+        data.clearHealing();
+        player.removeEffect(Main.DEATHS_DANCE_BLEED_EFFECT.get());
+        player.removeEffect(Main.DEATHS_DANCE_HEAL_EFFECT.get());
     }
 
-    private static class PlayerDanceData {
+    static class PlayerDanceData {
         float storedDamage; // Total damage stored to be applied later
-        int damageTickCounter; // Counter for applying delayed damage
         float healingRemaining; // Healing to apply over time
-        int healingTickCounter; // Counter for applying healing
-        Map<UUID, Long> damagedEntities; // Tracks entities damaged by this player (UUID -> game time)
-        
+        int healingPulses; // Healing pulses applied so far
+
         PlayerDanceData() {
             this.storedDamage = 0;
-            this.damageTickCounter = 0;
             this.healingRemaining = 0;
-            this.healingTickCounter = 0;
-            this.damagedEntities = new HashMap<>();
+            this.healingPulses = 0;
+        }
+
+        void clearStoredDamage() {
+            if (storedDamage > 0) {
+                CombatMetrics.count(CombatMetrics.Counter.STORED_DAMAGE_CLEARED, storedDamage);
+            }
+            storedDamage = 0;
+        }
+
+        void clearHealing() {
+            healingRemaining = 0;
+            healingPulses = 0;
         }
     }
 
     /**
-     * HIGH PRIORITY - Process damage reduction and storage BEFORE other damage modifications
+     * Re-adds the effect for stored damage or healing the player has no effect for, e.g. state
+     * carried over to a new player entity, or saved before these were effects.
      */
-    @SubscribeEvent(priority = EventPriority.HIGH)
-    public static void onPlayerHurt(LivingHurtEvent event) {
-        if (!(event.getEntity() instanceof Player)) {
-            return;
+    static void restoreEffects(Player player, PlayerDanceData data) {
+        if (data.storedDamage > 0 && !player.hasEffect(Main.DEATHS_DANCE_BLEED_EFFECT.get())) {
+            player.addEffect(bleed(Config.getDeathsDanceDamageIntervalTicks()));
         }
-        
-        Player player = (Player) event.getEntity();
-        ItemStack weapon = player.getMainHandItem();
-        
-        int danceLevel = EnchantmentHelper.getItemEnchantmentLevel(Main.DEATHS_DANCE_ENCHANTMENT.get(), weapon);
-        if (danceLevel <= 0) {
-            return;
+        if (data.healingRemaining > 0 && !player.hasEffect(Main.DEATHS_DANCE_HEAL_EFFECT.get())) {
+            player.addEffect(heal(Math.max(1, HEALING_PULSES - data.healingPulses)));
         }
-        
-        handleIgnorePain(event, player, danceLevel);
     }
 
     /**
-     * Track when player damages an entity
+     * HIGH PRIORITY combat stage - Process damage reduction and storage BEFORE other damage modifications
      */
-    @SubscribeEvent
-    public static void onPlayerAttack(LivingHurtEvent event) {
-        if (!(event.getSource().getEntity() instanceof Player)) {
-            return;
-        }
-        
-        Player player = (Player) event.getSource().getEntity();
-        ItemStack weapon = player.getMainHandItem();
-        
-        int danceLevel = EnchantmentHelper.getItemEnchantmentLevel(Main.DEATHS_DANCE_ENCHANTMENT.get(), weapon);
+    static void onPlayerHurt(CombatContext context) {
+        int danceLevel = context.victimLoadout.deathsDance;
         if (danceLevel <= 0) {
             return;
         }
-        
-        LivingEntity target = event.getEntity();
-        UUID playerUUID = player.getUUID();
-        UUID targetUUID = target.getUUID();
-        long currentTime = player.level().getGameTime();
-        
-        // Track this damage for kill credit
-        PlayerDanceData data = DANCE_DATA.computeIfAbsent(playerUUID, k -> new PlayerDanceData());
-        data.damagedEntities.put(targetUUID, currentTime);
+
+        handleIgnorePain(context.event, context.victimPlayer, context.victimData.dance, danceLevel, context.config);
     }
 
     /**
      * Ignore Pain: Reduce incoming damage and store it for later
      */
-    private static void handleIgnorePain(LivingHurtEvent event, Player player, int danceLevel) {
+    private static void handleIgnorePain(LivingHurtEvent event, Player player, PlayerDanceData data, int danceLevel, ConfigSnapshot config) {
         // Skip if player is dying (but allow at low HP - that's when it's most useful!)
         if (player.isDeadOrDying()) {
             return;
         }
         float incomingDamage = event.getAmount();
-        
+
         // Calculate damage reduction percentage (scales with level)
-        float reductionPercent = (float) (danceLevel * Config.getDeathsDanceReductionPerLevel());
-        
+        float reductionPercent = (float) (danceLevel * config.deathsDanceReductionPerLevel());
+
         float reducedDamage = incomingDamage * reductionPercent;
         float immediateDamage = incomingDamage - reducedDamage;
-        
+
         // Apply immediate reduced damage - this helps survival at low HP!
         event.setAmount(immediateDamage);
-        
+
         // Store the reduced damage to be applied over time
-        UUID playerUUID = player.getUUID();
-        PlayerDanceData data = DANCE_DATA.computeIfAbsent(playerUUID, k -> new PlayerDanceData());
         data.storedDamage += reducedDamage;
-        
-        // Reset damage application counter
-        data.damageTickCounter = 0;
+        CombatMetrics.count(CombatMetrics.Counter.IGNORE_PAIN_STORED, reducedDamage);
+
+        // Restart the delay: the next application happens one full interval after the latest hit
+        player.addEffect(bleed(config.deathsDanceDamageIntervalTicks()));
     }
 
     /**
@@ -134,200 +128,184 @@ public class DeathsDanceHandler {
      */
     @SubscribeEvent
     public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
-        Player player = event.getEntity();
-        UUID playerUUID = player.getUUID();
-        PlayerDanceData data = DANCE_DATA.get(playerUUID);
-        
-        if (data != null) {
-            // Clear all stored damage and effects on respawn
-            data.storedDamage = 0;
-            data.damageTickCounter = 0;
-            data.healingRemaining = 0;
-            data.healingTickCounter = 0;
-        }
+        // Clear all stored damage and effects on respawn
+        clearPlayerData(event.getEntity());
     }
 
     /**
-     * Defy: When an enemy dies, check if player damaged them recently
+     * If a player dies, cleanse their stored damage and prevent interference with other mods
      */
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public static void onEntityDeath(LivingDeathEvent event) {
-        LivingEntity deadEntity = event.getEntity();
-        UUID deadEntityUUID = deadEntity.getUUID();
-        long currentTime = deadEntity.level().getGameTime();
-        
-        // If a player dies, cleanse their stored damage and prevent interference with other mods
-        if (deadEntity instanceof Player) {
-            PlayerDanceData data = DANCE_DATA.get(deadEntityUUID);
-            
+        if (event.getEntity() instanceof Player deadPlayer) {
             // Always clear stored damage on death, regardless of whether they're holding the weapon
-            // This handles /kill command, respawning, and prevents post-death damage application
-            if (data != null) {
-                data.storedDamage = 0;
-                data.damageTickCounter = 0;
-                data.healingRemaining = 0;
-                data.healingTickCounter = 0;
-            }
+            // This handles /kill command, respawning, and prevents post-death damage application.
+            // The effects are left alone, since the player may be dying inside its own effect update.
+            PlayerDanceData data = PlayerCombatData.get(deadPlayer).dance;
+            data.clearStoredDamage();
+            data.clearHealing();
         }
-        
-        // Check all players with Death's Dance data
-        for (Map.Entry<UUID, PlayerDanceData> entry : DANCE_DATA.entrySet()) {
-            UUID playerUUID = entry.getKey();
-            PlayerDanceData data = entry.getValue();
-            
-            // Check if this player damaged the entity recently
-            Long damageTime = data.damagedEntities.get(deadEntityUUID);
-            if (damageTime != null && (currentTime - damageTime) <= Config.getDeathsDanceDamageIntervalTicks() * 3) {
-                // Player gets kill credit! Trigger Defy
-                
-                // Find the player entity
-                Player player = deadEntity.level().getPlayerByUUID(playerUUID);
-                if (player != null) {
-                    ItemStack weapon = player.getMainHandItem();
-                    int danceLevel = EnchantmentHelper.getItemEnchantmentLevel(Main.DEATHS_DANCE_ENCHANTMENT.get(), weapon);
-                    
-                    if (danceLevel > 0) {
-                        handleDefy(weapon, data, danceLevel);
-                    }
-                }
-                
-                // Clean up the tracked entity
-                data.damagedEntities.remove(deadEntityUUID);
-            }
+    }
+
+    /**
+     * Keeps the stored amounts in step with the effects: removing an effect (commands, other mods)
+     * drops what it would have applied.
+     */
+    @SubscribeEvent
+    public static void onEffectRemoved(MobEffectEvent.Remove event) {
+        if (!(event.getEntity() instanceof Player player) || player.level().isClientSide) {
+            return;
+        }
+        MobEffect effect = event.getEffect();
+        if (effect == Main.DEATHS_DANCE_BLEED_EFFECT.get()) {
+            player.getCapability(PlayerCombatData.CAPABILITY).ifPresent(data -> data.dance.clearStoredDamage());
+        } else if (effect == Main.DEATHS_DANCE_HEAL_EFFECT.get()) {
+            player.getCapability(PlayerCombatData.CAPABILITY).ifPresent(data -> data.dance.clearHealing());
+        }
+    }
+
+    /**
+     * Defy: Called by {@link KillCreditTracker} when a player who recently damaged an entity gets the takedown
+     */
+    static void onKillCredit(Player player, long ticksSinceHit, ConfigSnapshot config) {
+        if (ticksSinceHit > config.deathsDanceDamageIntervalTicks() * 3L) {
+            return;
+        }
+
+        PlayerCombatData combatData = PlayerCombatData.get(player);
+        EnchantmentLoadout loadout = LoadoutCache.get(player, combatData);
+        if (loadout.deathsDance > 0) {
+            // Player gets kill credit! Trigger Defy
+            handleDefy(player, combatData.dance, loadout.deathsDance, loadout.weaponDamage, config);
         }
     }
 
     /**
      * Defy: Clear stored damage and heal based on weapon AD
      */
-    private static void handleDefy(ItemStack weapon, PlayerDanceData data, int danceLevel) {
+    private static void handleDefy(Player player, PlayerDanceData data, int danceLevel, float weaponDamage, ConfigSnapshot config) {
+        EnchantProcEvent proc = EnchantProcEvent.startIfEnabled();
+
         // Clear all stored damage
-        data.storedDamage = 0;
-        data.damageTickCounter = 0;
-        
+        player.removeEffect(Main.DEATHS_DANCE_BLEED_EFFECT.get());
+        data.clearStoredDamage();
+
         // Calculate healing based on weapon AD
-        float weaponDamage = calculateWeaponDamage(weapon);
-        float healAmount = weaponDamage * (float) Config.getDeathsDanceHealPercent() * danceLevel; // Scale with level
-        
-        // Store healing to apply over 2 seconds (40 ticks)
+        float healAmount = weaponDamage * (float) config.deathsDanceHealPercent() * danceLevel; // Scale with level
+
+        // Store healing to apply over 2 seconds (40 ticks), restarting any heal in progress
+        player.removeEffect(Main.DEATHS_DANCE_HEAL_EFFECT.get());
+        data.clearHealing();
         data.healingRemaining = healAmount;
-        data.healingTickCounter = 0;
+        CombatMetrics.count(CombatMetrics.Counter.DEFY_PROCS, healAmount);
+        player.addEffect(heal(HEALING_PULSES));
+
+        if (proc != null) {
+            proc.record("deaths_dance", danceLevel, "defy");
+        }
     }
 
     /**
-     * Calculates weapon damage including sharpness
+     * Bleed effect tick, once per damage interval while damage is stored - Apply a third of the stored damage
      */
-    private static float calculateWeaponDamage(ItemStack weapon) {
-        float baseDamage = 4.0f;
-        
-        if (weapon.getItem() instanceof net.minecraft.world.item.SwordItem swordItem) {
-            baseDamage = (float) swordItem.getDamage();
-        } else if (weapon.getItem() instanceof net.minecraft.world.item.AxeItem axeItem) {
-            baseDamage = (float) axeItem.getAttackDamage();
+    public static void applyStoredDamage(Player player) {
+        ProfilerFiller profiler = player.level().getProfiler();
+        profiler.push("lifesteal_deaths_dance_bleed");
+        EnchantProcEvent proc = EnchantProcEvent.startIfEnabled();
+        long start = CombatMetrics.start();
+        bleedTick(player);
+        CombatMetrics.stop(BLEED_TIMER, start);
+        if (proc != null) {
+            proc.record("deaths_dance", LoadoutCache.get(player).deathsDance, "bleed");
+        }
+        profiler.pop();
+    }
+
+    private static void bleedTick(Player player) {
+        PlayerDanceData data = PlayerCombatData.get(player).dance;
+        if (data.storedDamage <= 0) {
+            return;
         }
-        
-        // Add sharpness bonus
-        int sharpnessLevel = EnchantmentHelper.getItemEnchantmentLevel(Enchantments.SHARPNESS, weapon);
-        if (sharpnessLevel > 0) {
-            baseDamage += (0.5f * sharpnessLevel + 0.5f);
+
+        // Critical safety check: If player is at critical health or dying, clear all stored damage
+        // This prevents conflicts with death mechanics, /kill command, and resurrection mods
+        if (player.getHealth() <= 1.0f || player.isDeadOrDying()) {
+            data.clearStoredDamage();
+            return;
+        }
+
+        float damageToApply = data.storedDamage / 3.0f;
+
+        // Additional safety: Don't apply damage if it would kill the player
+        // Leave at least 0.5 hearts to prevent accidental death
+        if (damageToApply >= player.getHealth() - 1.0f) {
+            // Damage would be lethal, clear it instead
+            data.clearStoredDamage();
+            return;
+        }
+
+        // Safe to apply damage. Queued as bleed damage, so it doesn't re-enter our own hurt stages.
+        DamageQueue.queue(player, bleedSource(player), damageToApply);
+
+        data.storedDamage -= damageToApply;
+
+        // Clean up if damage is exhausted, otherwise renew the bleed for the next third.
+        // An exhausted bleed simply runs out; it can't be removed from inside its own tick.
+        if (data.storedDamage <= 0.1f) {
+            data.clearStoredDamage();
+        } else {
+            player.addEffect(bleed(Config.getDeathsDanceDamageIntervalTicks()));
         }
-        
-        return baseDamage;
     }
 
     /**
-     * Server tick handler - Apply stored damage and healing over time
+     * Heal effect tick, every 2 ticks for 2 seconds after Defy - Apply healing over time
      */
-    @SubscribeEvent
-    public static void onServerTick(TickEvent.ServerTickEvent event) {
-        if (event.phase != TickEvent.Phase.END) {
-            return;
+    public static void applyHealingPulse(Player player) {
+        ProfilerFiller profiler = player.level().getProfiler();
+        profiler.push("lifesteal_deaths_dance_heal");
+        EnchantProcEvent proc = EnchantProcEvent.startIfEnabled();
+        long start = CombatMetrics.start();
+        healTick(player);
+        CombatMetrics.stop(HEAL_TIMER, start);
+        if (proc != null) {
+            proc.record("deaths_dance", LoadoutCache.get(player).deathsDance, "heal");
         }
-        
-        net.minecraft.server.MinecraftServer server = net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer();
-        if (server == null) {
+        profiler.pop();
+    }
+
+    private static void healTick(Player player) {
+        PlayerDanceData data = PlayerCombatData.get(player).dance;
+        if (data.healingRemaining <= 0) {
             return;
         }
-        
-        Iterator<Map.Entry<UUID, PlayerDanceData>> iter = DANCE_DATA.entrySet().iterator();
-        while (iter.hasNext()) {
-            Map.Entry<UUID, PlayerDanceData> entry = iter.next();
-            UUID playerUUID = entry.getKey();
-            PlayerDanceData data = entry.getValue();
-            
-            // Find the player across all dimensions
-            Player player = server.getPlayerList().getPlayer(playerUUID);
-            if (player == null) {
-                continue; // Player not online
-            }
-            
-            long currentTime = player.level().getGameTime();
-            
-            // Apply stored damage over time
-            if (data.storedDamage > 0) {
-                // Critical safety check: If player is at critical health or dying, clear all stored damage
-                // This prevents conflicts with death mechanics, /kill command, and resurrection mods
-                if (player.getHealth() <= 1.0f || player.isDeadOrDying()) {
-                    data.storedDamage = 0;
-                    data.damageTickCounter = 0;
-                } else {
-                    data.damageTickCounter++;
-                    
-                    // Apply damage every second (20 ticks) for 3 seconds total
-                    if (data.damageTickCounter >= Config.getDeathsDanceDamageIntervalTicks()) {
-                        float damageToApply = data.storedDamage / 3.0f;
-                        
-                        // Additional safety: Don't apply damage if it would kill the player
-                        // Leave at least 0.5 hearts to prevent accidental death
-                        if (damageToApply >= player.getHealth() - 1.0f) {
-                            // Damage would be lethal, clear it instead
-                            data.storedDamage = 0;
-                            data.damageTickCounter = 0;
-                        } else {
-                            // Safe to apply damage
-                            player.hurt(player.damageSources().magic(), damageToApply);
-                            
-                            data.storedDamage -= damageToApply;
-                            data.damageTickCounter = 0;
-                            
-                            // Clean up if damage is exhausted
-                            if (data.storedDamage <= 0.1f) {
-                                data.storedDamage = 0;
-                                data.damageTickCounter = 0;
-                            }
-                        }
-                    }
-                }
-            }
-            
-            // Apply healing over time
-            if (data.healingRemaining > 0) {
-                data.healingTickCounter++;
-                
-                // Apply healing every tick over 2 seconds (40 ticks total)
-                if (data.healingTickCounter % 2 == 0) { // Apply every 2 ticks for smoother healing
-                    float healToApply = data.healingRemaining / 20.0f;
-                    
-                    player.heal(healToApply);
-                    
-                    data.healingRemaining -= healToApply;
-                    
-                    if (data.healingRemaining <= 0.1f || data.healingTickCounter >= 40) {
-                        data.healingRemaining = 0;
-                        data.healingTickCounter = 0;
-                    }
-                }
-            }
-            
-            // Clean up old tracked entities (older than kill credit window)
-            data.damagedEntities.entrySet().removeIf(e -> 
-                (currentTime - e.getValue()) > Config.getDeathsDanceDamageIntervalTicks() * 3 + 100
-            );
-            
-            // Remove player data if nothing is active
-            if (data.storedDamage == 0 && data.healingRemaining == 0 && data.damagedEntities.isEmpty()) {
-                iter.remove();
-            }
+
+        float healToApply = data.healingRemaining / 20.0f;
+
+        HealAccumulator.add(player, healToApply);
+
+        data.healingRemaining -= healToApply;
+        data.healingPulses++;
+
+        if (data.healingRemaining <= 0.1f || data.healingPulses >= HEALING_PULSES) {
+            data.clearHealing();
         }
     }
+
+    /**
+     * Bleed lasting one damage interval; it applies on its last tick.
+     */
+    private static MobEffectInstance bleed(int intervalTicks) {
+        return new MobEffectInstance(Main.DEATHS_DANCE_BLEED_EFFECT.get(), intervalTicks + 1, 0, false, false, true);
+    }
+
+    private static MobEffectInstance heal(int pulses) {
+        return new MobEffectInstance(Main.DEATHS_DANCE_HEAL_EFFECT.get(),
+                pulses * DeathsDanceHealEffect.PULSE_INTERVAL, 0, false, false, true);
+    }
+
+    private static DamageSource bleedSource(Player player) {
+        return new DamageSource(player.level().registryAccess().registryOrThrow(Registries.DAMAGE_TYPE)
+                .getHolderOrThrow(Main.DEATHS_DANCE_BLEED));
+    }
 }
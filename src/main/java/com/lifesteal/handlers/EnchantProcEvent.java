@@ -0,0 +1,61 @@
+package com.lifesteal.handlers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one piece of enchantment work: a combat stage applied to a hit, or a timed
+ * effect (Cleave decay, Death's Dance bleed and heal, RockSolid floor). The event's duration is
+ * the time spent in it.
+ *
+ * Only created while a recording has the event enabled, see {@link #startIfEnabled()}, so procs
+ * don't allocate anything the rest of the time.
+ */
+@Name("lifesteal.EnchantProc")
+@Label("Enchantment Proc")
+@Category({"LifeSteal", "Combat"})
+@Description("Work done by one LifeSteal enchantment")
+@StackTrace(false)
+final class EnchantProcEvent extends jdk.jfr.Event {
+
+    private static final EventType TYPE = EventType.getEventType(EnchantProcEvent.class);
+
+    @Label("Enchantment")
+    String enchantment;
+
+    @Label("Level")
+    @Description("Enchantment level, RockSolid pieces worn, or 0 for work not tied to a wielder")
+    int level;
+
+    @Label("Action")
+    String action;
+
+    /**
+     * @return a started event if a recording has it enabled, otherwise null.
+     */
+    static EnchantProcEvent startIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        EnchantProcEvent event = new EnchantProcEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and commits it, if over its threshold, with the given details.
+     */
+    void record(String enchantment, int level, String action) {
+        end();
+        if (shouldCommit()) {
+            this.enchantment = enchantment;
+            this.level = level;
+            this.action = action;
+            commit();
+        }
+    }
+}
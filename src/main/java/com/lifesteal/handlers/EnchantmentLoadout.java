@@ -0,0 +1,86 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import com.lifesteal.WeaponDamage;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.enchantment.EnchantmentHelper;
+import net.minecraft.world.item.enchantment.Enchantments;
+
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the mod enchantments a player currently has equipped.
+ *
+ * Weapon enchantments and the weapon's attack damage are read from the main hand item;
+ * RockSolid is counted across the four armor slots. Instances are built by {@link LoadoutCache} when equipment changes,
+ * so reading a level during combat is a plain field access instead of an NBT lookup.
+ */
+public class EnchantmentLoadout {
+
+    public static final EnchantmentLoadout EMPTY = new EnchantmentLoadout(0, 0, 0, 0, 0, 0, 0, 0.0f);
+
+    private static final EquipmentSlot[] ARMOR_SLOTS = {
+            EquipmentSlot.HEAD,
+            EquipmentSlot.CHEST,
+            EquipmentSlot.LEGS,
+            EquipmentSlot.FEET
+    };
+
+    // Main hand levels.
+    final int lifesteal;
+    final int cleave;
+    final int moonrise;
+    final int deathsDance;
+    final int lifeline;
+    final int nightstalker;
+    // Number of armor pieces carrying RockSolid.
+    final int rockSolidPieces;
+    // Attack damage of the main hand item, see WeaponDamage. Only resolved when it carries an enchantment.
+    final float weaponDamage;
+
+    private EnchantmentLoadout(int lifesteal, int cleave, int moonrise, int deathsDance,
+                               int lifeline, int nightstalker, int rockSolidPieces, float weaponDamage) {
+        this.lifesteal = lifesteal;
+        this.cleave = cleave;
+        this.moonrise = moonrise;
+        this.deathsDance = deathsDance;
+        this.lifeline = lifeline;
+        this.nightstalker = nightstalker;
+        this.rockSolidPieces = rockSolidPieces;
+        this.weaponDamage = weaponDamage;
+    }
+
+    /**
+     * Reads the player's current equipment. This parses item NBT, so it should only be
+     * called when the equipment actually changed.
+     */
+    static EnchantmentLoadout of(Player player) {
+        ItemStack mainHand = player.getMainHandItem();
+        Map<Enchantment, Integer> weapon = EnchantmentHelper.getEnchantments(mainHand);
+
+        int rockSolidPieces = 0;
+        for (EquipmentSlot slot : ARMOR_SLOTS) {
+            if (EnchantmentHelper.getItemEnchantmentLevel(Main.ROCK_SOLID_ENCHANTMENT.get(), player.getItemBySlot(slot)) > 0) {
+                rockSolidPieces++;
+            }
+        }
+
+        if (weapon.isEmpty() && rockSolidPieces == 0) {
+            return EMPTY;
+        }
+
+        return new EnchantmentLoadout(
+                weapon.getOrDefault(Main.LIFESTEAL_ENCHANTMENT.get(), 0),
+                weapon.getOrDefault(Main.CLEAVE_ENCHANTMENT.get(), 0),
+                weapon.getOrDefault(Main.MOONRISE_ENCHANTMENT.get(), 0),
+                weapon.getOrDefault(Main.DEATHS_DANCE_ENCHANTMENT.get(), 0),
+                weapon.getOrDefault(Main.LIFELINE_ENCHANTMENT.get(), 0),
+                weapon.getOrDefault(Main.NIGHTSTALKER_ENCHANTMENT.get(), 0),
+                rockSolidPieces,
+                weapon.isEmpty() ? 0.0f : WeaponDamage.resolve(mainHand, weapon.getOrDefault(Enchantments.SHARPNESS, 0))
+        );
+    }
+}
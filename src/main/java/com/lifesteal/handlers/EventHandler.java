@@ -4,11 +4,9 @@ import com.lifesteal.Main;
 import com.lifesteal.commands.RescueCommand;
 import com.lifesteal.commands.RetrieveArmorCommand;
 import com.lifesteal.commands.SetArmorCommand;
-import com.lifesteal.configs.Config;
-import net.minecraft.world.entity.LivingEntity;
+import com.lifesteal.commands.StatsCommand;
+import com.lifesteal.configs.ConfigSnapshot;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.enchantment.EnchantmentHelper;
 import net.minecraftforge.event.RegisterCommandsEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
@@ -22,42 +20,43 @@ public class EventHandler {
         RetrieveArmorCommand.register(event.getDispatcher());
         SetArmorCommand.register(event.getDispatcher());
         RescueCommand.register(event.getDispatcher());
+        StatsCommand.register(event.getDispatcher());
     }
 
-    @SubscribeEvent
-    public static void onLivingHurt(LivingHurtEvent event) {
+    /**
+     * Combat stage (NORMAL priority), dispatched by {@link CombatPipeline}.
+     */
+    static void onLivingHurt(CombatContext context) {
         // If the damage source is a player, apply offensive effects.
-        if (event.getSource().getEntity() instanceof Player player) {
-            handleLifesteal(event, player);
+        if (context.attacker != null) {
+            handleLifesteal(context.event, context.attacker, context.attackerData, context.attackerLoadout.lifesteal, context.config);
         }
 
         // If the entity hurt is a player, apply defensive (damage vulnerability) effects.
-        if (event.getEntity() instanceof Player player) {
-            handleDamageVulnerability(event, player);
+        if (context.victimPlayer != null) {
+            handleDamageVulnerability(context.event, context.victimLoadout.lifesteal, context.config);
         }
     }
 
     /**
-     * Lifesteal: heals the attacker based on damage dealt.
+     * Lifesteal: heals the attacker based on damage dealt. The heal lands at the end of the tick,
+     * summed with any other healing the player gets from the mod in the same tick.
      */
-    private static void handleLifesteal(LivingHurtEvent event, Player player) {
-        ItemStack weapon = player.getMainHandItem();
-        int level = EnchantmentHelper.getItemEnchantmentLevel(Main.LIFESTEAL_ENCHANTMENT.get(), weapon);
+    private static void handleLifesteal(LivingHurtEvent event, Player player, PlayerCombatData data, int level, ConfigSnapshot config) {
         if (level > 0) {
             // Multiply the event damage by (configured lifesteal percent * enchantment level)
-            float healAmount = event.getAmount() * ((float) Config.getLifestealPercent() * level);
-            player.heal(healAmount);
+            float healAmount = event.getAmount() * ((float) config.lifestealPercent() * level);
+            HealAccumulator.add(player, data, healAmount);
+            CombatMetrics.count(CombatMetrics.Counter.LIFESTEAL_HEALS, healAmount);
         }
     }
 
     /**
      * Damage Vulnerability: increases damage taken by players with the enchantment.
      */
-    private static void handleDamageVulnerability(LivingHurtEvent event, Player player) {
-        ItemStack weapon = player.getMainHandItem();
-        int level = EnchantmentHelper.getItemEnchantmentLevel(Main.LIFESTEAL_ENCHANTMENT.get(), weapon);
+    private static void handleDamageVulnerability(LivingHurtEvent event, int level, ConfigSnapshot config) {
         if (level > 0) {
-            float multiplier = 1 + ((float) Config.getDamageIncreasePercent() * level);
+            float multiplier = 1 + ((float) config.damageIncreasePercent() * level);
             event.setAmount(event.getAmount() * multiplier);
         }
     }
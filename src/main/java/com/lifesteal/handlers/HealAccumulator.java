@@ -0,0 +1,162 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sums all healing the mod grants a player within a tick and applies it with a single
+ * {@code heal()} call at the end of the server tick.
+ *
+ * A sweep through a mob cluster with Lifesteal would otherwise heal (and sync the player's health)
+ * once per victim. The pending amount lives in the player's {@link PlayerCombatData}; players are
+ * queued the first time they receive healing in a tick. Healing queued for a player entity that
+ * was removed in the meantime (death, logout) is dropped.
+ *
+ * The running totals are kept for stats reporting. They only ever grow; a stats reset moves a
+ * baseline that the plain getters subtract, while the {@code SinceStart} getters feed the exporter.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class HealAccumulator {
+
+    // Filled from level threads during combat, drained on the server thread.
+    private static final Queue<Player> PENDING = new ConcurrentLinkedQueue<>();
+
+    private static final LongAdder HEALS_REQUESTED = new LongAdder();
+    private static final LongAdder HEALS_APPLIED = new LongAdder();
+    private static final DoubleAdder TOTAL_HEALED = new DoubleAdder();
+    private static final CombatMetrics.Timer FLUSH_TIMER = CombatMetrics.timer("heal_flush");
+    // Totals at the last stats reset.
+    private static volatile long healsRequestedBaseline;
+    private static volatile long healsAppliedBaseline;
+    private static volatile double totalHealedBaseline;
+
+    /**
+     * Adds healing to be applied to the player at the end of the current tick.
+     */
+    public static void add(Player player, float amount) {
+        add(player, PlayerCombatData.get(player), amount);
+    }
+
+    /**
+     * Same as {@link #add(Player, float)} for callers that already hold the player's combat data.
+     */
+    static void add(Player player, PlayerCombatData data, float amount) {
+        if (amount <= 0) {
+            return;
+        }
+        HEALS_REQUESTED.increment();
+        if (data.pendingHeal == 0) {
+            PENDING.add(player);
+        }
+        data.pendingHeal += amount;
+    }
+
+    /**
+     * Queues a player whose combat data was taken over from another player object with healing
+     * still pending, e.g. a player cloned on leaving the End. The original's queue entry is
+     * skipped once it is removed, so the healing is applied to the new object instead.
+     */
+    static void requeue(Player player, PlayerCombatData data) {
+        if (data.pendingHeal > 0) {
+            PENDING.add(player);
+        }
+    }
+
+    /**
+     * @return the number of heals handed to the accumulator since the last stats reset.
+     */
+    public static long getHealsRequested() {
+        return HEALS_REQUESTED.sum() - healsRequestedBaseline;
+    }
+
+    /**
+     * @return the number of {@code heal()} calls the accumulated heals were applied with since
+     * the last stats reset.
+     */
+    public static long getHealsApplied() {
+        return HEALS_APPLIED.sum() - healsAppliedBaseline;
+    }
+
+    /**
+     * @return the total health restored through the accumulator since the last stats reset.
+     */
+    public static double getTotalHealed() {
+        return TOTAL_HEALED.sum() - totalHealedBaseline;
+    }
+
+    /**
+     * @return the number of heals handed to the accumulator since the server started.
+     */
+    public static long getHealsRequestedSinceStart() {
+        return HEALS_REQUESTED.sum();
+    }
+
+    /**
+     * @return the number of {@code heal()} calls since the server started.
+     */
+    public static long getHealsAppliedSinceStart() {
+        return HEALS_APPLIED.sum();
+    }
+
+    /**
+     * @return the total health restored since the server started.
+     */
+    public static double getTotalHealedSinceStart() {
+        return TOTAL_HEALED.sum();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOW)
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) {
+            return;
+        }
+
+        if (PENDING.isEmpty()) {
+            return;
+        }
+
+        long start = CombatMetrics.start();
+        Player player;
+        while ((player = PENDING.poll()) != null) {
+            if (player.isRemoved()) {
+                // Its combat data went with it.
+                continue;
+            }
+            PlayerCombatData data = PlayerCombatData.get(player);
+            float amount = data.pendingHeal;
+            data.pendingHeal = 0;
+            if (amount > 0 && player.isAlive()) {
+                player.heal(amount);
+                HEALS_APPLIED.increment();
+                TOTAL_HEALED.add(amount);
+            }
+        }
+        CombatMetrics.stop(FLUSH_TIMER, start);
+    }
+
+    /**
+     * Starts the reported totals from zero again, e.g. from {@code /lifesteal stats reset}.
+     * The since-start totals are left alone.
+     */
+    public static void resetStats() {
+        healsRequestedBaseline = HEALS_REQUESTED.sum();
+        healsAppliedBaseline = HEALS_APPLIED.sum();
+        totalHealedBaseline = TOTAL_HEALED.sum();
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        PENDING.clear();
+        resetStats();
+    }
+}
@@ -0,0 +1,60 @@
+package com.lifesteal.handlers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for resolving kill credit for one death, including the takedown effects
+ * (Defy, Nightstalker invulnerability) it triggered.
+ *
+ * Only created while a recording has the event enabled, see {@link #startIfEnabled()}.
+ */
+@Name("lifesteal.KillCredit")
+@Label("Kill Credit")
+@Category({"LifeSteal", "Combat"})
+@Description("Kill credit resolved for a death")
+@StackTrace(false)
+final class KillCreditEvent extends jdk.jfr.Event {
+
+    private static final EventType TYPE = EventType.getEventType(KillCreditEvent.class);
+
+    @Label("Victim")
+    String victim;
+
+    @Label("Attackers")
+    @Description("Attackers found in the damage ledger within the credit window")
+    int attackers;
+
+    @Label("Credited Players")
+    @Description("Attackers still in the level and handed to the takedown effects")
+    int credited;
+
+    /**
+     * @return a started event if a recording has it enabled, otherwise null.
+     */
+    static KillCreditEvent startIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        KillCreditEvent event = new KillCreditEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and commits it, if over its threshold, with the given details.
+     */
+    void record(String victim, int attackers, int credited) {
+        end();
+        if (shouldCommit()) {
+            this.victim = victim;
+            this.attackers = attackers;
+            this.credited = credited;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import com.lifesteal.configs.Config;
+import com.lifesteal.configs.ConfigSnapshot;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.profiling.ProfilerFiller;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Shared kill credit for takedown effects (Death's Dance Defy, Nightstalker invulnerability).
+ *
+ * Every player hit is written once to the {@link DamageLedger} of the level it happened in. When
+ * something dies, that level's ledger is queried for that victim over the longest window any takedown effect accepts, and each
+ * credited player is handed to the effects with the time since their latest hit. Each effect
+ * then applies its own window. Attackers are resolved by entity id in the victim's level, so a
+ * player who has since left that dimension gets no credit.
+ *
+ * Resolution shows up as {@code lifesteal_kill_credit} in the profiler and as a
+ * {@link KillCreditEvent} in flight recordings.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class KillCreditTracker {
+
+    private static final CombatMetrics.Timer DEATH_TIMER = CombatMetrics.timer("kill_credit");
+
+    /**
+     * LOW PRIORITY combat stage - Record the final damage of a player hit
+     */
+    static void onPlayerAttack(CombatContext context) {
+        if (context.attacker == null || !(context.victim.level() instanceof ServerLevel level)) {
+            return;
+        }
+
+        LevelCombatState.get(level).ledger.record(context.attacker.getId(), context.victim.getId(),
+                level.getGameTime(), context.event.getAmount());
+    }
+
+    /**
+     * Resolves every player credited with the kill and hands them to the takedown effects.
+     */
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onEntityDeath(LivingDeathEvent event) {
+        LivingEntity deadEntity = event.getEntity();
+        if (!(deadEntity.level() instanceof ServerLevel level)) {
+            return;
+        }
+        LevelCombatState state = LevelCombatState.getIfPresent(level);
+        if (state == null) {
+            return;
+        }
+
+        ProfilerFiller profiler = level.getProfiler();
+        profiler.push("lifesteal_kill_credit");
+        KillCreditEvent jfrEvent = KillCreditEvent.startIfEnabled();
+        long start = CombatMetrics.start();
+        int victim = deadEntity.getId();
+        long currentTime = level.getGameTime();
+        ConfigSnapshot config = Config.snapshot();
+        DamageLedger ledger = state.ledger;
+        IntArrayList credited = new IntArrayList(4);
+        LongArrayList lastHitTimes = new LongArrayList(4);
+
+        ledger.collectAttackers(victim, currentTime - config.killCreditWindowTicks(), credited, lastHitTimes);
+        ledger.forget(victim);
+
+        int players = 0;
+        for (int i = 0; i < credited.size(); i++) {
+            // Find the player entity
+            if (!(level.getEntity(credited.getInt(i)) instanceof Player player)) {
+                continue;
+            }
+            players++;
+
+            long ticksSinceHit = currentTime - lastHitTimes.getLong(i);
+            CombatMetrics.count(CombatMetrics.Counter.KILL_CREDITS);
+            DeathsDanceHandler.onKillCredit(player, ticksSinceHit, config);
+            NightstalkerHandler.onKillCredit(player, ticksSinceHit, config);
+        }
+        CombatMetrics.stop(DEATH_TIMER, start);
+
+        if (jfrEvent != null) {
+            jfrEvent.record(EntityType.getKey(deadEntity.getType()).toString(), credited.size(), players);
+        }
+        profiler.pop();
+    }
+}
@@ -0,0 +1,142 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Handler state that belongs to a single level: anything keyed by entity id or tied to
+ * entities living in that level (kill credit, Cleave stacks, and their timers).
+ *
+ * Each level's scheduler is advanced by that level's own tick, so a dimension only ever touches
+ * its own entities. Player-bound state (cooldowns, stored damage, shields) follows the player
+ * across dimensions and lives in the player's {@link PlayerCombatData}.
+ *
+ * The registry itself is concurrent, but a level's state is owned by the thread ticking that
+ * level and is not synchronized. While a level ticks, its owner thread is recorded and every
+ * access is checked against it, so a parallel-tick mod touching another level's state fails
+ * with an {@link IllegalStateException} instead of corrupting it.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class LevelCombatState {
+
+    private static final Map<ResourceKey<Level>, LevelCombatState> STATES = new ConcurrentHashMap<>();
+    private static final CombatMetrics.Timer TICK_TIMER = CombatMetrics.timer("level_timers");
+
+    final ServerLevel level;
+    final TimingWheel scheduler = new TimingWheel();
+    final DamageLedger ledger = new DamageLedger();
+    final Int2ObjectMap<CleaveHandler.CleaveData> cleaveData = new Int2ObjectOpenHashMap<>();
+    // Thread currently ticking the level, or null between ticks.
+    private volatile Thread owner;
+
+    private LevelCombatState(ServerLevel level) {
+        this.level = level;
+        this.scheduler.advanceTo(level.getGameTime());
+    }
+
+    /**
+     * Returns the state of a level, creating it on first access.
+     */
+    static LevelCombatState get(ServerLevel level) {
+        LevelCombatState state = STATES.computeIfAbsent(level.dimension(), k -> new LevelCombatState(level));
+        state.checkOwnerThread("accessed");
+        return state;
+    }
+
+    /**
+     * Returns the state of a level, or null if nothing has been tracked there yet.
+     */
+    static LevelCombatState getIfPresent(ServerLevel level) {
+        LevelCombatState state = STATES.get(level.dimension());
+        if (state != null) {
+            state.checkOwnerThread("accessed");
+        }
+        return state;
+    }
+
+    /**
+     * @return the state of every level with tracked state. Only read it on the server thread
+     * between level ticks, when no level owns its state.
+     */
+    static Collection<LevelCombatState> all() {
+        return STATES.values();
+    }
+
+    /**
+     * Runs the action at the end of this level's tick where game time reaches the deadline.
+     */
+    TimingWheel.ScheduledTask scheduleAt(long gameTime, Runnable action) {
+        checkOwnerThread("scheduled");
+        return scheduler.schedule(gameTime, action);
+    }
+
+    private void checkOwnerThread(String access) {
+        if (!isOwnerThread()) {
+            throw new IllegalStateException("Combat state of " + level.dimension().location() + " " + access
+                    + " off its tick thread");
+        }
+    }
+
+    /**
+     * @return true if the calling thread may touch this state: the level is not ticking,
+     * or the caller is the thread ticking it.
+     */
+    boolean isOwnerThread() {
+        Thread current = owner;
+        return current == null || current == Thread.currentThread();
+    }
+
+    @SubscribeEvent
+    public static void onLevelTick(TickEvent.LevelTickEvent event) {
+        if (event.level.isClientSide()) {
+            return;
+        }
+
+        LevelCombatState state = STATES.get(event.level.dimension());
+        if (state == null) {
+            return;
+        }
+
+        if (event.phase == TickEvent.Phase.START) {
+            state.owner = Thread.currentThread();
+        } else {
+            event.level.getProfiler().push("lifesteal_timers");
+            long start = CombatMetrics.start();
+            state.scheduler.advanceTo(event.level.getGameTime());
+            CombatMetrics.stop(TICK_TIMER, start);
+            event.level.getProfiler().pop();
+            state.owner = null;
+        }
+    }
+
+    /**
+     * Drops the level's state, including its pending timers, when the level unloads.
+     */
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            LevelCombatState state = STATES.remove(level.dimension());
+            if (state != null) {
+                state.scheduler.clear();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        STATES.clear();
+    }
+}
@@ -0,0 +1,83 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import com.lifesteal.WeaponDamage;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Objects;
+
+/**
+ * Caches each player's {@link EnchantmentLoadout} in their {@link PlayerCombatData}.
+ *
+ * The loadout is built on first read and dropped whenever the player's main hand or armor
+ * changes. Durability loss also fires an equipment change (the weapon takes damage on nearly every
+ * hit), so a change that only touches the stack's damage value keeps the loadout. A new player
+ * object (login, respawn) starts without one, so it is rebuilt lazily.
+ * A datapack reload may change weapon damage, so loadouts built before it are rebuilt as well.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class LoadoutCache {
+
+    /**
+     * Returns the cached loadout for a player, building it on first access.
+     */
+    public static EnchantmentLoadout get(Player player) {
+        return get(player, PlayerCombatData.get(player));
+    }
+
+    /**
+     * Same as {@link #get(Player)} for callers that already hold the player's combat data.
+     */
+    static EnchantmentLoadout get(Player player, PlayerCombatData data) {
+        EnchantmentLoadout loadout = data.loadout;
+        int generation = WeaponDamage.generation();
+        if (loadout == null || data.loadoutGeneration != generation) {
+            loadout = EnchantmentLoadout.of(player);
+            data.loadout = loadout;
+            data.loadoutGeneration = generation;
+        }
+        return loadout;
+    }
+
+    @SubscribeEvent
+    public static void onEquipmentChange(LivingEquipmentChangeEvent event) {
+        if (!(event.getEntity() instanceof Player player) || player.level().isClientSide) {
+            return;
+        }
+        // Off hand changes can't affect any of our enchantments.
+        EquipmentSlot slot = event.getSlot();
+        if ((slot == EquipmentSlot.MAINHAND || slot.getType() == EquipmentSlot.Type.ARMOR)
+                && !onlyDurabilityChanged(event.getFrom(), event.getTo())) {
+            PlayerCombatData.get(player).loadout = null;
+        }
+    }
+
+    /**
+     * @return true if both stacks are the same item with the same tag apart from its damage value.
+     */
+    static boolean onlyDurabilityChanged(ItemStack from, ItemStack to) {
+        if (from.getItem() != to.getItem()) {
+            return false;
+        }
+        CompoundTag fromTag = from.getTag();
+        CompoundTag toTag = to.getTag();
+        if (fromTag == null || toTag == null) {
+            return fromTag == toTag;
+        }
+        if (fromTag.size() != toTag.size()) {
+            return false;
+        }
+        for (String key : fromTag.getAllKeys()) {
+            if (!key.equals(ItemStack.TAG_DAMAGE) && !Objects.equals(fromTag.get(key), toTag.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,192 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import com.lifesteal.configs.Config;
+import com.lifesteal.configs.ConfigSnapshot;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically writes the mod's metrics to a Prometheus text file, for the node-exporter textfile
+ * collector ({@code metrics.export_file} in the server config; empty disables it).
+ *
+ * Every export interval the server thread takes a snapshot of the tracked-state sizes (between
+ * level ticks, when no level owns its state) and hands it to a single background writer. The
+ * writer reads the counters and timers, which are thread-safe, writes a temporary file next to
+ * the target and renames it over the target, so the collector never sees a partial file. If the
+ * previous export is still being written, the interval is skipped; the server thread never waits
+ * on the file system.
+ *
+ * Timings and procs are only recorded while {@code metrics.enabled} is set; heal totals and
+ * tracked-state sizes are always exported. Counters and histograms are exported as totals since
+ * the server started, so {@code /lifesteal stats reset} never makes them go backwards.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class MetricsExporter {
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LifeSteal metrics export");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicBoolean WRITING = new AtomicBoolean();
+    // Only the first of a run of failed exports is logged.
+    private static volatile boolean failing;
+
+    /**
+     * Tracked state, summed over all levels.
+     */
+    private record Gauges(int cleaveTargets, int cleaveStacks, int ledgerVictims, int levelTimers,
+                          int shieldedPlayers) {
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) {
+            return;
+        }
+        ConfigSnapshot config = Config.snapshot();
+        String file = config.metricsExportFile();
+        if (file.isEmpty()) {
+            return;
+        }
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null || server.getTickCount() % (config.metricsExportIntervalSeconds() * 20) != 0) {
+            return;
+        }
+        if (!WRITING.compareAndSet(false, true)) {
+            return;
+        }
+
+        Gauges gauges = collectGauges();
+        File serverDirectory = server.getServerDirectory();
+        WRITER.execute(() -> {
+            try {
+                write(serverDirectory.toPath().resolve(file), gauges);
+                failing = false;
+            } catch (Exception e) {
+                if (!failing) {
+                    Main.LOGGER.warn("Failed to export LifeSteal metrics to {}", file, e);
+                    failing = true;
+                }
+            } finally {
+                WRITING.set(false);
+            }
+        });
+    }
+
+    private static Gauges collectGauges() {
+        int cleaveTargets = 0;
+        int cleaveStacks = 0;
+        int ledgerVictims = 0;
+        int levelTimers = 0;
+        for (LevelCombatState state : LevelCombatState.all()) {
+            cleaveTargets += state.cleaveData.size();
+            for (CleaveHandler.CleaveData data : state.cleaveData.values()) {
+                cleaveStacks += data.stacks;
+            }
+            ledgerVictims += state.ledger.trackedVictims();
+            levelTimers += state.scheduler.size();
+        }
+        return new Gauges(cleaveTargets, cleaveStacks, ledgerVictims, levelTimers, ShieldEngine.shieldedPlayers());
+    }
+
+    private static void write(Path target, Gauges gauges) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(temp, format(gauges), StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String format(Gauges gauges) {
+        StringBuilder out = new StringBuilder(8192);
+
+        header(out, "lifesteal_metrics_enabled", "gauge", "1 if handler timings and procs are being recorded.");
+        sample(out, "lifesteal_metrics_enabled", null, CombatMetrics.isEnabled() ? 1 : 0);
+
+        header(out, "lifesteal_events_total", "counter", "Enchantment procs and other handler events.");
+        for (CombatMetrics.Counter counter : CombatMetrics.Counter.values()) {
+            sample(out, "lifesteal_events_total", "event=\"" + counterName(counter) + "\"", counter.countSinceStart());
+        }
+        header(out, "lifesteal_event_amount_total", "counter",
+                "HP healed, stored, cleared or added by handler events.");
+        for (CombatMetrics.Counter counter : CombatMetrics.Counter.values()) {
+            sample(out, "lifesteal_event_amount_total", "event=\"" + counterName(counter) + "\"", counter.amountSinceStart());
+        }
+
+        header(out, "lifesteal_heals_requested_total", "counter", "Heals handed to the heal accumulator.");
+        sample(out, "lifesteal_heals_requested_total", null, HealAccumulator.getHealsRequestedSinceStart());
+        header(out, "lifesteal_heals_applied_total", "counter", "heal() calls the accumulated heals were applied with.");
+        sample(out, "lifesteal_heals_applied_total", null, HealAccumulator.getHealsAppliedSinceStart());
+        header(out, "lifesteal_healed_hp_total", "counter", "Health restored by the mod.");
+        sample(out, "lifesteal_healed_hp_total", null, HealAccumulator.getTotalHealedSinceStart());
+
+        header(out, "lifesteal_cleave_stacks_active", "gauge", "Cleave stacks currently on targets.");
+        sample(out, "lifesteal_cleave_stacks_active", null, gauges.cleaveStacks());
+        header(out, "lifesteal_tracked_entries", "gauge", "Entries in the mod's tracked state.");
+        sample(out, "lifesteal_tracked_entries", "state=\"cleave_targets\"", gauges.cleaveTargets());
+        sample(out, "lifesteal_tracked_entries", "state=\"damage_ledger_victims\"", gauges.ledgerVictims());
+        sample(out, "lifesteal_tracked_entries", "state=\"level_timers\"", gauges.levelTimers());
+        sample(out, "lifesteal_tracked_entries", "state=\"shielded_players\"", gauges.shieldedPlayers());
+
+        header(out, "lifesteal_handler_duration_seconds", "histogram", "Time spent in handler entry points.");
+        for (CombatMetrics.Timer timer : CombatMetrics.getTimers()) {
+            String handler = "handler=\"" + timer.name() + "\"";
+            long[] buckets = timer.bucketCountsSinceStart();
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length - 1; i++) {
+                cumulative += buckets[i];
+                double le = CombatMetrics.Timer.bucketBoundNanos(i) / 1e9;
+                sample(out, "lifesteal_handler_duration_seconds_bucket", handler + ",le=\"" + le + "\"", cumulative);
+            }
+            cumulative += buckets[buckets.length - 1];
+            sample(out, "lifesteal_handler_duration_seconds_bucket", handler + ",le=\"+Inf\"", cumulative);
+            sample(out, "lifesteal_handler_duration_seconds_sum", handler, timer.totalNanosSinceStart() / 1e9);
+            sample(out, "lifesteal_handler_duration_seconds_count", handler, cumulative);
+        }
+
+        return out.toString();
+    }
+
+    private static String counterName(CombatMetrics.Counter counter) {
+        return counter.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+}
@@ -1,22 +1,12 @@
 package com.lifesteal.handlers;
 
-import com.lifesteal.Main;
-import com.lifesteal.configs.Config;
+import com.lifesteal.configs.ConfigSnapshot;
 import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.effect.MobEffects;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.enchantment.EnchantmentHelper;
-import net.minecraft.world.item.enchantment.Enchantments;
-import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
-import net.minecraftforge.eventbus.api.SubscribeEvent;
-import net.minecraftforge.fml.common.Mod;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -27,82 +17,58 @@ import java.util.UUID;
  * - Grants absorption hearts (shield) for 2 seconds (40 ticks)
  * - Has a cooldown of 6 seconds (120 ticks)
  */
-@Mod.EventBusSubscriber
 public class MoonriseHandler {
 
-    private static final Map<UUID, PlayerMoonriseData> MOONRISE_DATA = new HashMap<>();
-
-    private static class PlayerMoonriseData {
+    static class PlayerMoonriseData {
         UUID lastTargetUUID;
         long lastHitTime; // In ticks
-        int cooldownRemaining; // In ticks
+        long cooldownUntil; // Game time at which Moonrise can trigger again
     }
 
-    @SubscribeEvent
-    public static void onLivingHurt(LivingHurtEvent event) {
-        if (!(event.getSource().getEntity() instanceof Player)) {
-            return;
-        }
-        
-        Player player = (Player) event.getSource().getEntity();
-        LivingEntity target = event.getEntity();
-        ItemStack weapon = player.getMainHandItem();
-        
-        int eclipseLevel = EnchantmentHelper.getItemEnchantmentLevel(Main.MOONRISE_ENCHANTMENT.get(), weapon);
+    /**
+     * Combat stage (NORMAL priority), dispatched by {@link CombatPipeline}.
+     */
+    static void onLivingHurt(CombatContext context) {
+        int eclipseLevel = context.attackerLoadout.moonrise;
         if (eclipseLevel <= 0) {
             return;
         }
         
-        handleMoonrise(event, player, target, weapon, eclipseLevel);
+        Player player = context.attacker;
+        handleMoonrise(context.event, player, context.attackerData.moonrise, context.attackerData.shields, context.victim, context.attackerLoadout.weaponDamage, eclipseLevel, context.config);
     }
 
-    private static void handleMoonrise(LivingHurtEvent event, Player player, LivingEntity target, ItemStack weapon, int eclipseLevel) {
-        UUID playerUUID = player.getUUID();
+    private static void handleMoonrise(LivingHurtEvent event, Player player, PlayerMoonriseData data, ShieldEngine.PlayerShields shields, LivingEntity target, float weaponDamage, int eclipseLevel, ConfigSnapshot config) {
         UUID targetUUID = target.getUUID();
         long currentTick = player.level().getGameTime();
         
-        // Get or create player's moonrise data
-        PlayerMoonriseData data = MOONRISE_DATA.computeIfAbsent(playerUUID, k -> {
-            PlayerMoonriseData newData = new PlayerMoonriseData();
-            newData.cooldownRemaining = 0;
-            return newData;
-        });
-        
         // Check if on cooldown
-        if (data.cooldownRemaining > 0) {
+        if (currentTick < data.cooldownUntil) {
             return;
         }
         
         // Check if this is a second hit on the same target within the time window
         boolean isSameTarget = targetUUID.equals(data.lastTargetUUID);
-        boolean withinTimeWindow = (currentTick - data.lastHitTime) <= Config.getMoonriseHitWindowTicks();
+        boolean withinTimeWindow = (currentTick - data.lastHitTime) <= config.moonriseHitWindowTicks();
         
         if (isSameTarget && withinTimeWindow) {
             // TRIGGER MOONRISE EFFECT!
             
             // Calculate bonus damage based on target's max health (8% per level)
             float targetMaxHealth = target.getMaxHealth();
-            float bonusDamage = targetMaxHealth * ((float) Config.getMoonriseDamagePercent() * eclipseLevel);
+            float bonusDamage = targetMaxHealth * ((float) config.moonriseDamagePercent() * eclipseLevel);
             
             event.setAmount(event.getAmount() + bonusDamage);
             
             // Grant 30% movement speed for 2 seconds
-            player.addEffect(new MobEffectInstance(MobEffects.MOVEMENT_SPEED, Config.getMoonriseEffectDurationTicks(), 0, false, true));
-            
-            // Grant shield: 300% weapon AD
-            float weaponDamage = calculateWeaponDamage(weapon);
-            float shieldAmount = weaponDamage * 3.0f;
+            player.addEffect(new MobEffectInstance(MobEffects.MOVEMENT_SPEED, config.moonriseEffectDurationTicks(), 0, false, true));
             
-            // Convert shield amount to absorption hearts (2 HP = 1 heart), scale absorption level accordingly
-            // Custom rounding: if decimal < 0.4, floor; otherwise ceil
-            float shieldHearts = shieldAmount / 4.0f;
-            float decimal = shieldHearts - (int) shieldHearts;
-            int absorptionLevel = (decimal < 0.4f) ? (int) shieldHearts : (int) Math.ceil(shieldHearts);
-            absorptionLevel = Math.max(0, absorptionLevel - 1); // Absorption level 0 = 1 heart, so subtract 1
-            player.addEffect(new MobEffectInstance(MobEffects.ABSORPTION, Config.getMoonriseEffectDurationTicks(), absorptionLevel, false, true));
+            // Grant shield: 300% weapon AD, decaying over the effect duration
+            ShieldEngine.grant(player, shields, ShieldEngine.Source.MOONRISE, weaponDamage * 3.0f, config.moonriseEffectDurationTicks());
             
             // Start cooldown
-            data.cooldownRemaining = Config.getMoonriseCooldownTicks();
+            data.cooldownUntil = currentTick + config.moonriseCooldownTicks();
+            CombatMetrics.count(CombatMetrics.Counter.MOONRISE_PROCS, bonusDamage);
             
             // Reset tracking
             data.lastTargetUUID = null;
@@ -114,52 +80,4 @@ public class MoonriseHandler {
             data.lastHitTime = currentTick;
         }
     }
-
-    /**
-     * Calculates the total weapon damage including base damage and sharpness enchantment.
-     */
-    private static float calculateWeaponDamage(ItemStack weapon) {
-        float baseDamage = 1.0f; // Default base (player punch)
-        
-        // Get actual attack damage from item attributes
-        var attackDamageAttribute = weapon.getAttributeModifiers(net.minecraft.world.entity.EquipmentSlot.MAINHAND)
-            .get(net.minecraft.world.entity.ai.attributes.Attributes.ATTACK_DAMAGE);
-        
-        if (!attackDamageAttribute.isEmpty()) {
-            // Sum up the base damage (1.0) plus weapon modifier
-            baseDamage = 1.0f; // Player base punch
-            for (var modifier : attackDamageAttribute) {
-                baseDamage += (float) modifier.getAmount();
-            }
-        }
-        
-        // Add sharpness bonus (Sharpness adds 0.5 * level + 0.5 damage)
-        int sharpnessLevel = EnchantmentHelper.getItemEnchantmentLevel(Enchantments.SHARPNESS, weapon);
-        if (sharpnessLevel > 0) {
-            baseDamage += (0.5f * sharpnessLevel + 0.5f);
-        }
-        
-        return baseDamage;
-    }
-
-    /**
-     * Server tick event handler to decrement cooldowns.
-     */
-    @SubscribeEvent
-    public static void onServerTick(TickEvent.ServerTickEvent event) {
-        if (event.phase != TickEvent.Phase.END) {
-            return;
-        }
-        
-        Iterator<Map.Entry<UUID, PlayerMoonriseData>> iter = MOONRISE_DATA.entrySet().iterator();
-        while (iter.hasNext()) {
-            Map.Entry<UUID, PlayerMoonriseData> entry = iter.next();
-            PlayerMoonriseData data = entry.getValue();
-            
-            // Decrement cooldown
-            if (data.cooldownRemaining > 0) {
-                data.cooldownRemaining--;
-            }
-        }
-    }
 }
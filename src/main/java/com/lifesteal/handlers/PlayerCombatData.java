@@ -0,0 +1,181 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.capabilities.CapabilityToken;
+import net.minecraftforge.common.capabilities.ICapabilitySerializable;
+import net.minecraftforge.common.capabilities.RegisterCapabilitiesEvent;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * All per-player enchantment state, attached to every player as a capability.
+ *
+ * Handlers reach their state through the player object instead of hashing the player's UUID
+ * into their own maps, and the state goes away with the player entity: a respawned player starts
+ * from a clean object. Returning from the End (a clone that isn't a death) carries the state over
+ * to the new player entity.
+ *
+ * State that should survive a relog or restart (stored Death's Dance damage and healing, and the
+ * Moonrise, Lifeline and Nightstalker deadlines) is saved with the player's NBT. Deadlines are
+ * absolute game times, which persist with the world, so time spent offline still counts down.
+ * The tag is only rebuilt when one of those values changed since the last save; each save gets
+ * its own copy, since the caller stores the returned tag in the player's NBT.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class PlayerCombatData {
+
+    public static final Capability<PlayerCombatData> CAPABILITY = CapabilityManager.get(new CapabilityToken<>() {});
+    private static final ResourceLocation ID = new ResourceLocation(Main.MODID, "combat_data");
+
+    EnchantmentLoadout loadout; // Null until first read after attach or an equipment change.
+    int loadoutGeneration; // WeaponDamage generation the loadout was built in.
+    DeathsDanceHandler.PlayerDanceData dance = new DeathsDanceHandler.PlayerDanceData();
+    MoonriseHandler.PlayerMoonriseData moonrise = new MoonriseHandler.PlayerMoonriseData();
+    LifelineHandler.PlayerLifelineData lifeline = new LifelineHandler.PlayerLifelineData();
+    NightstalkerHandler.PlayerNightstalkerData nightstalker = new NightstalkerHandler.PlayerNightstalkerData();
+    ShieldEngine.PlayerShields shields = new ShieldEngine.PlayerShields();
+    long rockSolidSoundReadyAt; // Game time at which the RockSolid sound can play again.
+    boolean rockSolidFloorPending; // A RockSolid floor recompute is scheduled on the level's wheel.
+    float pendingHeal; // Healing collected by HealAccumulator this tick.
+
+    // Values and tag of the last save, reused while nothing persisted has changed.
+    private Persisted saved;
+    private CompoundTag savedTag;
+
+    /**
+     * The subset of the state that is written to player NBT.
+     */
+    private record Persisted(float storedDamage, float healingRemaining, int healingPulses,
+                             long moonriseCooldownUntil, long lifelineCooldownUntil,
+                             long nightstalkerInvulnerableUntil) {
+
+        CompoundTag toTag() {
+            CompoundTag tag = new CompoundTag();
+            tag.putFloat("StoredDamage", storedDamage);
+            tag.putFloat("HealingRemaining", healingRemaining);
+            tag.putInt("HealingPulses", healingPulses);
+            tag.putLong("MoonriseCooldownUntil", moonriseCooldownUntil);
+            tag.putLong("LifelineCooldownUntil", lifelineCooldownUntil);
+            tag.putLong("NightstalkerInvulnerableUntil", nightstalkerInvulnerableUntil);
+            return tag;
+        }
+    }
+
+    /**
+     * Returns the combat state attached to the player.
+     */
+    public static PlayerCombatData get(Player player) {
+        return player.getCapability(CAPABILITY).orElseThrow(
+                () -> new IllegalStateException("Player is missing LifeSteal combat data"));
+    }
+
+    /**
+     * Takes over another player object's state, e.g. when the player is cloned on leaving the End.
+     */
+    private void copyFrom(PlayerCombatData other) {
+        this.dance = other.dance;
+        this.moonrise = other.moonrise;
+        this.lifeline = other.lifeline;
+        this.nightstalker = other.nightstalker;
+        this.shields = other.shields;
+        this.rockSolidSoundReadyAt = other.rockSolidSoundReadyAt;
+        this.pendingHeal = other.pendingHeal;
+    }
+
+    private CompoundTag serializeNBT() {
+        Persisted current = new Persisted(dance.storedDamage, dance.healingRemaining, dance.healingPulses,
+                moonrise.cooldownUntil, lifeline.cooldownUntil,
+                nightstalker.invulnerableUntil);
+        if (!current.equals(saved)) {
+            saved = current;
+            savedTag = current.toTag();
+        }
+        return savedTag.copy();
+    }
+
+    private void deserializeNBT(CompoundTag tag) {
+        dance.storedDamage = tag.getFloat("StoredDamage");
+        dance.healingRemaining = tag.getFloat("HealingRemaining");
+        dance.healingPulses = tag.getInt("HealingPulses");
+        moonrise.cooldownUntil = tag.getLong("MoonriseCooldownUntil");
+        lifeline.cooldownUntil = tag.getLong("LifelineCooldownUntil");
+        nightstalker.invulnerableUntil = tag.getLong("NightstalkerInvulnerableUntil");
+    }
+
+    @SubscribeEvent
+    public static void onAttachCapabilities(AttachCapabilitiesEvent<Entity> event) {
+        if (event.getObject() instanceof Player) {
+            Provider provider = new Provider();
+            event.addCapability(ID, provider);
+            event.addListener(provider.optional::invalidate);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerClone(PlayerEvent.Clone event) {
+        if (event.isWasDeath()) {
+            return;
+        }
+        Player original = event.getOriginal();
+        original.reviveCaps();
+        try {
+            PlayerCombatData data = get(event.getEntity());
+            data.copyFrom(get(original));
+            ShieldEngine.transfer(original, event.getEntity(), data.shields);
+            HealAccumulator.requeue(event.getEntity(), data);
+            DeathsDanceHandler.restoreEffects(event.getEntity(), data.dance);
+        } finally {
+            original.invalidateCaps();
+        }
+    }
+
+    /**
+     * Re-adds Death's Dance effects for state loaded without them.
+     */
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        Player player = event.getEntity();
+        DeathsDanceHandler.restoreEffects(player, get(player).dance);
+    }
+
+    private static class Provider implements ICapabilitySerializable<CompoundTag> {
+        private final PlayerCombatData data = new PlayerCombatData();
+        private final LazyOptional<PlayerCombatData> optional = LazyOptional.of(() -> data);
+
+        @Override
+        public <T> LazyOptional<T> getCapability(Capability<T> cap, Direction side) {
+            return CAPABILITY.orEmpty(cap, optional);
+        }
+
+        @Override
+        public CompoundTag serializeNBT() {
+            return data.serializeNBT();
+        }
+
+        @Override
+        public void deserializeNBT(CompoundTag tag) {
+            data.deserializeNBT(tag);
+        }
+    }
+
+    /**
+     * Registers the capability type on the mod event bus.
+     */
+    @Mod.EventBusSubscriber(modid = Main.MODID, bus = Mod.EventBusSubscriber.Bus.MOD)
+    public static class Registration {
+        @SubscribeEvent
+        public static void onRegisterCapabilities(RegisterCapabilitiesEvent event) {
+            event.register(PlayerCombatData.class);
+        }
+    }
+}
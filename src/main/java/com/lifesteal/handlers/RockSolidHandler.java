@@ -1,21 +1,21 @@
 package com.lifesteal.handlers;
 
 import com.lifesteal.Main;
+import com.lifesteal.Utility;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.sounds.SoundSource;
+import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.entity.EquipmentSlot;
-import net.minecraft.world.entity.ai.attributes.Attributes;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.enchantment.EnchantmentHelper;
-import net.minecraftforge.event.TickEvent;
-import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
-import java.util.*;
+import java.util.UUID;
 
 /**
  * Handles the RockSolid enchantment effect.
@@ -23,132 +23,118 @@ import java.util.*;
  * Each armor piece with RockSolid provides:
  * - Minimum armor floor equal to the number of pieces with the enchantment
  * - Plays sound effect when hit (10s cooldown)
+ *
+ * The floor is a transient ADDITION armor modifier that tops the player's armor up to the floor,
+ * and is only touched when the required amount changes. It is computed from the armor after
+ * Cleave's shred, and Cleave re-evaluates it whenever the shred changes, so the shred can take
+ * armor down to the floor but never below it.
+ *
+ * Nothing runs per tick: the floor is recomputed after armor is equipped or removed (which also
+ * covers login and respawn, since a new player entity reports its worn armor as a change) and
+ * right before armor is applied to a hit, which catches modifiers from any other source.
+ * The equipment change event fires before vanilla swaps the old piece's attribute modifiers for
+ * the new one's, so that recompute is deferred to the level's timer wheel, which runs at the end
+ * of the level tick.
  */
 @Mod.EventBusSubscriber
 public class RockSolidHandler {
 
-    private static final Map<UUID, Long> SOUND_COOLDOWNS = new HashMap<>();
-    private static final Map<UUID, Double> ORIGINAL_ARMOR = new HashMap<>();
+    private static final UUID FLOOR_MODIFIER_ID = UUID.fromString("b84e0f27-3a9d-4e61-8c52-71f9d0a6e3c4");
+    private static final String FLOOR_MODIFIER_NAME = "RockSolid armor floor";
     private static final long SOUND_COOLDOWN_TICKS = 200; // 10 seconds = 200 ticks
+    private static final CombatMetrics.Timer EQUIPMENT_TIMER = CombatMetrics.timer("rock_solid_equipment");
     private static final SoundEvent ROCK_SOLID_SOUND = SoundEvent.createVariableRangeEvent(
             new ResourceLocation(Main.MODID, "rocksolid")
     );
 
     /**
-     * HIGH PRIORITY - Play sound and track armor when player is hit
+     * HIGH PRIORITY combat stage - Play sound when player is hit
      */
-    @SubscribeEvent(priority = EventPriority.HIGH)
-    public static void onPlayerHurt(LivingHurtEvent event) {
-        if (!(event.getEntity() instanceof Player)) {
-            return;
-        }
-        
-        Player player = (Player) event.getEntity();
-        
+    static void onPlayerHurt(CombatContext context) {
         // Count armor pieces with RockSolid enchantment
-        int rockSolidCount = countRockSolidPieces(player);
+        int rockSolidCount = context.victimLoadout.rockSolidPieces;
         
         if (rockSolidCount <= 0) {
             return;
         }
         
-        // Play sound if off cooldown
-        playSoundIfReady(player);
-        
-        // Store original armor if not already tracked
-        UUID playerUUID = player.getUUID();
-        if (!ORIGINAL_ARMOR.containsKey(playerUUID)) {
-            ORIGINAL_ARMOR.put(playerUUID, (double) player.getArmorValue());
-        }
-    }
-
-    /**
-     * Counts how many armor pieces have the RockSolid enchantment
-     */
-    private static int countRockSolidPieces(Player player) {
-        int count = 0;
-        
-        for (EquipmentSlot slot : new EquipmentSlot[]{
-                EquipmentSlot.HEAD, 
-                EquipmentSlot.CHEST, 
-                EquipmentSlot.LEGS, 
-                EquipmentSlot.FEET
-        }) {
-            ItemStack armorPiece = player.getItemBySlot(slot);
-            int enchantLevel = EnchantmentHelper.getItemEnchantmentLevel(
-                    Main.ROCK_SOLID_ENCHANTMENT.get(), 
-                    armorPiece
-            );
-            if (enchantLevel > 0) {
-                count++;
-            }
-        }
+        // Armor is applied after LivingHurtEvent, so this brings the floor up to date for this hit.
+        applyArmorFloor(context.victimPlayer);
+        CombatMetrics.count(CombatMetrics.Counter.ROCK_SOLID_HITS);
         
-        return count;
+        // Play sound if off cooldown
+        playSoundIfReady(context.victimPlayer, context.victimData);
     }
 
     /**
      * Gets the minimum armor floor (1 armor point per piece with enchantment)
      */
     public static int getMinimumArmorFloor(Player player) {
-        return countRockSolidPieces(player);
+        return LoadoutCache.get(player).rockSolidPieces;
     }
 
     /**
-     * Server tick handler - Enforce minimum armor floor every tick
+     * Schedules a floor recompute when armor changes. The player's armor attribute still holds
+     * the old piece's modifiers while this event runs, so the floor is recomputed once the swap
+     * is done, at the end of the level tick (or the next one, for changes made after the level
+     * ticked). Several pieces changed in the same tick share one recompute, and durability loss
+     * doesn't schedule one at all.
      */
-    @SubscribeEvent
-    public static void onServerTick(TickEvent.ServerTickEvent event) {
-        if (event.phase != TickEvent.Phase.END) {
+    @SubscribeEvent(priority = EventPriority.LOW)
+    public static void onEquipmentChange(LivingEquipmentChangeEvent event) {
+        if (!(event.getEntity() instanceof Player player) || !(player.level() instanceof ServerLevel level)
+                || event.getSlot().getType() != EquipmentSlot.Type.ARMOR
+                || LoadoutCache.onlyDurabilityChanged(event.getFrom(), event.getTo())) {
             return;
         }
-        
-        net.minecraft.server.MinecraftServer server = net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer();
-        if (server == null) {
+        PlayerCombatData data = PlayerCombatData.get(player);
+        if (data.rockSolidFloorPending) {
             return;
         }
-        
-        long currentTime = server.getTickCount();
-        
-        // Check all online players
-        for (Player player : server.getPlayerList().getPlayers()) {
-            int minArmorFloor = getMinimumArmorFloor(player);
-            
-            if (minArmorFloor > 0) {
-                double currentArmor = player.getArmorValue();
-                
-                // If armor has been shredded below the minimum floor, enforce it
-                if (currentArmor < minArmorFloor) {
-                    player.getAttribute(Attributes.ARMOR).setBaseValue(minArmorFloor);
-                }
+        data.rockSolidFloorPending = true;
+        LevelCombatState.get(level).scheduleAt(level.getGameTime(), () -> {
+            data.rockSolidFloorPending = false;
+            // A player who changed dimension since belongs to another level's thread; their floor
+            // is brought up to date again before armor is applied to their next hit.
+            if (!player.isRemoved() && player.level() == level) {
+                long start = CombatMetrics.start();
+                applyArmorFloor(player);
+                CombatMetrics.stop(EQUIPMENT_TIMER, start);
             }
+        });
+    }
+
+    /**
+     * Sets the floor modifier to whatever is missing between the player's armor, shred included,
+     * and their floor.
+     */
+    static void applyArmorFloor(Player player) {
+        ProfilerFiller profiler = player.level().getProfiler();
+        profiler.push("lifesteal_rock_solid_floor");
+        EnchantProcEvent proc = EnchantProcEvent.startIfEnabled();
+
+        int minArmorFloor = getMinimumArmorFloor(player);
+        double topUp = 0;
+        if (minArmorFloor > 0) {
+            double armor = Utility.getArmorExcluding(player, FLOOR_MODIFIER_ID);
+            topUp = Math.max(0, minArmorFloor - armor);
         }
-        
-        // Cleanup old data periodically (every 5 seconds)
-        if (currentTime % 100 == 0) {
-            SOUND_COOLDOWNS.entrySet().removeIf(entry -> 
-                    (currentTime - entry.getValue()) > SOUND_COOLDOWN_TICKS + 1200
-            );
-            
-            // Clean up armor tracking for offline players
-            Set<UUID> onlinePlayerUUIDs = new HashSet<>();
-            for (Player player : server.getPlayerList().getPlayers()) {
-                onlinePlayerUUIDs.add(player.getUUID());
-            }
-            ORIGINAL_ARMOR.keySet().retainAll(onlinePlayerUUIDs);
+        Utility.setArmorModifier(player, FLOOR_MODIFIER_ID, FLOOR_MODIFIER_NAME, topUp,
+                AttributeModifier.Operation.ADDITION);
+
+        if (proc != null) {
+            proc.record("rock_solid", minArmorFloor, "floor");
         }
+        profiler.pop();
     }
 
     /**
      * Plays the RockSolid sound effect if cooldown has expired
      */
-    private static void playSoundIfReady(Player player) {
-        UUID playerUUID = player.getUUID();
+    private static void playSoundIfReady(Player player, PlayerCombatData data) {
         long currentTime = player.level().getGameTime();
         
-        Long lastSoundTime = SOUND_COOLDOWNS.get(playerUUID);
-        
-        if (lastSoundTime == null || (currentTime - lastSoundTime) >= SOUND_COOLDOWN_TICKS) {
+        if (currentTime >= data.rockSolidSoundReadyAt) {
             // Play sound
             player.level().playSound(
                     null, 
@@ -162,7 +148,7 @@ public class RockSolidHandler {
             );
             
             // Update cooldown
-            SOUND_COOLDOWNS.put(playerUUID, currentTime);
+            data.rockSolidSoundReadyAt = currentTime + SOUND_COOLDOWN_TICKS;
         }
     }
 }
@@ -0,0 +1,237 @@
+package com.lifesteal.handlers;
+
+import com.lifesteal.Main;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decaying absorption shields granted by the mod (Moonrise, Lifeline).
+ *
+ * Each source holds at most one shield, stored as an exact HP amount that decays linearly from the
+ * time it was granted (or last hit) to its expiry. The current value is computed from those
+ * timestamps when needed, nothing is ticked per shield. The player's absorption amount carries the
+ * sum of all shields on top of absorption from other sources (e.g. golden apples):
+ * <ul>
+ *   <li>before a hit is applied, the shields are brought up to date, so vanilla absorbs with the
+ *   decayed amount;</li>
+ *   <li>absorption lost since the last update is charged to our shields first, soonest expiring first;</li>
+ *   <li>a handful of times per second the displayed absorption of shielded players is refreshed, and
+ *   players whose shields ran out are dropped.</li>
+ * </ul>
+ * A new shield from a source replaces that source's shield if it is stronger than what is left of
+ * it; shields from different sources stack.
+ */
+@Mod.EventBusSubscriber(modid = Main.MODID)
+public class ShieldEngine {
+
+    enum Source {
+        MOONRISE,
+        LIFELINE
+    }
+
+    private static final int SOURCES = Source.values().length;
+    private static final int REFRESH_INTERVAL_TICKS = 10;
+
+    // Players with at least one shield. Added to from level threads during combat.
+    private static final Set<Player> SHIELDED = ConcurrentHashMap.newKeySet();
+    private static final CombatMetrics.Timer REFRESH_TIMER = CombatMetrics.timer("shield_refresh");
+
+    static class PlayerShields {
+        private final float[] base = new float[SOURCES];    // Value at 'since'
+        private final long[] since = new long[SOURCES];     // Start of the current decay
+        private final long[] expiresAt = new long[SOURCES]; // Value reaches zero here
+        private float applied; // Absorption we added to the player at the last update
+
+        private float valueAt(int source, long now) {
+            long end = expiresAt[source];
+            if (now >= end || base[source] <= 0) {
+                return 0;
+            }
+            return base[source] * (end - now) / (float) (end - since[source]);
+        }
+
+        private float total(long now) {
+            float total = 0;
+            for (int i = 0; i < SOURCES; i++) {
+                total += valueAt(i, now);
+            }
+            return total;
+        }
+
+        boolean isActive() {
+            return applied > 0;
+        }
+
+        /**
+         * Takes absorbed damage out of the shields, soonest expiring first.
+         */
+        private void consume(float amount, long now) {
+            while (amount > 0) {
+                int next = -1;
+                for (int i = 0; i < SOURCES; i++) {
+                    if (valueAt(i, now) > 0 && (next < 0 || expiresAt[i] < expiresAt[next])) {
+                        next = i;
+                    }
+                }
+                if (next < 0) {
+                    return;
+                }
+                float value = valueAt(next, now);
+                float taken = Math.min(value, amount);
+                // Restart the decay from what is left, so the rest still runs out at the same time.
+                base[next] = value - taken;
+                since[next] = now;
+                amount -= taken;
+            }
+        }
+    }
+
+    /**
+     * Grants a shield of the given HP from a source, decaying to nothing over the duration.
+     */
+    static void grant(Player player, PlayerShields shields, Source source, float amount, int durationTicks) {
+        long now = player.level().getGameTime();
+        float other = settle(player, shields, now);
+        int i = source.ordinal();
+        if (amount > shields.valueAt(i, now)) {
+            shields.base[i] = amount;
+            shields.since[i] = now;
+            shields.expiresAt[i] = now + durationTicks;
+        }
+        write(player, shields, other, now);
+        if (shields.isActive()) {
+            SHIELDED.add(player);
+        }
+    }
+
+    /**
+     * HIGH PRIORITY combat stage - Bring the victim's shields up to date before absorption is applied
+     */
+    static void onPlayerHurt(CombatContext context) {
+        PlayerShields shields = context.victimData.shields;
+        if (shields.isActive()) {
+            refresh(context.victimPlayer, shields);
+        }
+    }
+
+    private static void refresh(Player player, PlayerShields shields) {
+        long now = player.level().getGameTime();
+        write(player, shields, settle(player, shields, now), now);
+    }
+
+    /**
+     * Charges absorption lost since the last update to the shields.
+     *
+     * @return the absorption that doesn't belong to our shields.
+     */
+    private static float settle(Player player, PlayerShields shields, long now) {
+        float current = player.getAbsorptionAmount();
+        float ours = Math.min(shields.applied, current);
+        if (ours < shields.applied) {
+            shields.consume(shields.applied - ours, now);
+        }
+        return current - ours;
+    }
+
+    private static void write(Player player, PlayerShields shields, float other, long now) {
+        float total = shields.total(now);
+        if (total != shields.applied) {
+            player.setAbsorptionAmount(other + total);
+            shields.applied = total;
+        }
+    }
+
+    /**
+     * Moves shields over to a new entity of the same player (leaving the End), re-applying their
+     * absorption whether or not the new entity inherited the old one's.
+     */
+    static void transfer(Player from, Player to, PlayerShields shields) {
+        SHIELDED.remove(from);
+        if (!shields.isActive()) {
+            return;
+        }
+        long now = to.level().getGameTime();
+        // Charge whatever the old entity lost since the last update.
+        settle(from, shields, now);
+        float other = Math.max(0, to.getAbsorptionAmount() - shields.applied);
+        // Nothing of ours is on the new entity yet; force the write.
+        shields.applied = 0;
+        write(to, shields, other, now);
+        if (shields.isActive()) {
+            SHIELDED.add(to);
+        }
+    }
+
+    /**
+     * @return the number of players with at least one shield.
+     */
+    static int shieldedPlayers() {
+        return SHIELDED.size();
+    }
+
+    /**
+     * Removes all shields, leaving absorption from other sources.
+     */
+    static void clear(Player player, PlayerShields shields) {
+        long now = player.level().getGameTime();
+        float other = settle(player, shields, now);
+        for (int i = 0; i < SOURCES; i++) {
+            shields.base[i] = 0;
+            shields.expiresAt[i] = 0;
+        }
+        write(player, shields, other, now);
+        SHIELDED.remove(player);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || SHIELDED.isEmpty()) {
+            return;
+        }
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null || server.getTickCount() % REFRESH_INTERVAL_TICKS != 0) {
+            return;
+        }
+
+        long start = CombatMetrics.start();
+        Iterator<Player> iterator = SHIELDED.iterator();
+        while (iterator.hasNext()) {
+            Player player = iterator.next();
+            if (player.isRemoved()) {
+                iterator.remove();
+                continue;
+            }
+            PlayerShields shields = PlayerCombatData.get(player).shields;
+            refresh(player, shields);
+            if (!shields.isActive()) {
+                iterator.remove();
+            }
+        }
+        CombatMetrics.stop(REFRESH_TIMER, start);
+    }
+
+    /**
+     * Shields are short-lived and not saved; strip them so the saved absorption only holds
+     * other sources.
+     */
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        Player player = event.getEntity();
+        clear(player, PlayerCombatData.get(player).shields);
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        SHIELDED.clear();
+    }
+}
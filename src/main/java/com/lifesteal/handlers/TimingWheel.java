@@ -0,0 +1,179 @@
+package com.lifesteal.handlers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel keyed on game time.
+ *
+ * Tasks are hashed into a fixed ring of buckets by their deadline tick. Advancing the wheel
+ * only visits the buckets for the ticks that passed, and does nothing at all while no task
+ * is pending, so idle handler state costs nothing per tick. Deadlines further away than the
+ * ring size simply stay in their bucket for another lap.
+ *
+ * Scheduling and cancelling are synchronized on the wheel, so a wheel can take tasks from other
+ * threads of a parallel-tick server. Actions run on the thread that advances the wheel,
+ * while it holds the lock; an uncontended per-level wheel only pays for the lock acquisition.
+ */
+public class TimingWheel {
+
+    private static final int DEFAULT_SLOTS = 512; // Power of two, ~25 seconds per lap.
+
+    private final List<ScheduledTask>[] buckets;
+    private final int mask;
+    private final List<ScheduledTask> due = new ArrayList<>();
+    private long currentTick;
+    private int pending;
+    private boolean hasCancelled;
+
+    public TimingWheel() {
+        this(DEFAULT_SLOTS);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int slots) {
+        if (slots <= 0 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Timing wheel size must be a power of two: " + slots);
+        }
+        this.buckets = new List[slots];
+        for (int i = 0; i < slots; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Schedules an action to run once the wheel reaches the given tick.
+     * Deadlines that already passed run on the next advance.
+     */
+    public synchronized ScheduledTask schedule(long deadline, Runnable action) {
+        ScheduledTask task = new ScheduledTask(this, deadline, action);
+        long slotTick = Math.max(deadline, currentTick + 1);
+        buckets[(int) (slotTick & mask)].add(task);
+        pending++;
+        return task;
+    }
+
+    /**
+     * Runs every task whose deadline is at or before the given tick.
+     */
+    public synchronized void advanceTo(long tick) {
+        if (pending == 0) {
+            // Nothing live is scheduled; drop cancelled leftovers once and stay idle.
+            if (hasCancelled) {
+                clear();
+            }
+            currentTick = tick;
+            return;
+        }
+        if (tick <= currentTick) {
+            return;
+        }
+
+        // If more than one lap passed, every bucket has to be visited exactly once.
+        long from = tick - currentTick > buckets.length ? tick - buckets.length + 1 : currentTick + 1;
+        for (long t = from; t <= tick && pending > 0; t++) {
+            currentTick = t;
+            collectDue(buckets[(int) (t & mask)], tick);
+            for (ScheduledTask task : due) {
+                task.action.run();
+            }
+            due.clear();
+        }
+        currentTick = tick;
+    }
+
+    private void collectDue(List<ScheduledTask> bucket, long tick) {
+        int i = 0;
+        while (i < bucket.size()) {
+            ScheduledTask task = bucket.get(i);
+            if (task.state == ScheduledTask.CANCELLED || task.deadline <= tick) {
+                // Swap-remove; order inside a bucket is irrelevant.
+                int last = bucket.size() - 1;
+                bucket.set(i, bucket.get(last));
+                bucket.remove(last);
+                if (task.state == ScheduledTask.SCHEDULED) {
+                    task.state = ScheduledTask.DONE;
+                    pending--;
+                    due.add(task);
+                }
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Drops every scheduled task without running it.
+     */
+    public synchronized void clear() {
+        for (List<ScheduledTask> bucket : buckets) {
+            for (ScheduledTask task : bucket) {
+                task.state = ScheduledTask.CANCELLED;
+            }
+            bucket.clear();
+        }
+        pending = 0;
+        hasCancelled = false;
+    }
+
+    /**
+     * @return the last tick the wheel was advanced to.
+     */
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return the number of tasks that are scheduled and not cancelled.
+     */
+    public synchronized int size() {
+        return pending;
+    }
+
+    /**
+     * Handle to a scheduled action.
+     */
+    public static class ScheduledTask {
+        private static final int SCHEDULED = 0;
+        private static final int CANCELLED = 1;
+        private static final int DONE = 2;
+
+        private final TimingWheel wheel;
+        private final long deadline;
+        private final Runnable action;
+        private int state = SCHEDULED;
+
+        private ScheduledTask(TimingWheel wheel, long deadline, Runnable action) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.action = action;
+        }
+
+        /**
+         * Prevents the action from running. Has no effect if it already ran.
+         */
+        public void cancel() {
+            synchronized (wheel) {
+                if (state == SCHEDULED) {
+                    state = CANCELLED;
+                    wheel.pending--;
+                    wheel.hasCancelled = true;
+                }
+            }
+        }
+
+        /**
+         * @return true while the action is still waiting to run.
+         */
+        public boolean isActive() {
+            synchronized (wheel) {
+                return state == SCHEDULED;
+            }
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}